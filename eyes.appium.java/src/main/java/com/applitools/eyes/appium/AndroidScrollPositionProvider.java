@@ -24,12 +24,33 @@ import java.util.List;
 
 public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider {
 
+    // Timeouts for the scroll to settle (these used to be fixed sleeps)
+    private static final int TOUCH_SCROLL_TIMEOUT = 750;
+    // The minimal time after a touch scroll for the scrollbars to fade
+    private static final int SCROLLBARS_FADE_DELAY = 750;
+    private static final int HELPER_SCROLL_TIMEOUT = 1000;
+    private static final int HELPER_BEHAVIOR_SCROLL_TIMEOUT = 1500;
+    private static final int HELPER_DUMP_VHS_TIMEOUT = 5000;
+
     private Location curScrollPos;
     private Location scrollableViewLoc;
     private RectangleSize entireSize = null;
+    // The time the scrollbars of the last touch scroll fade, or 0 if they were already waited for
+    private long scrollbarsFadeTime;
+
+    private final ScrollIdleDetector scrollIdleDetector;
+    private final HelperLibraryChannel helperChannel;
+    private final ScrollIdleDetector.ScrollStateFingerprint scrollDataFingerprint = new ScrollIdleDetector.ScrollStateFingerprint() {
+        @Override
+        public Object get() {
+            return String.valueOf(EyesAppiumUtils.getLastScrollData(driver));
+        }
+    };
 
     public AndroidScrollPositionProvider(Logger logger, EyesAppiumDriver driver) {
         super(logger, driver);
+        scrollIdleDetector = new ScrollIdleDetector(logger, driver.getTestId());
+        helperChannel = HelperLibraryChannel.getChannel((AndroidDriver<?>) this.driver);
     }
 
     @Override
@@ -164,15 +185,37 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
         scrollAction.moveTo(new PointOption().withCoordinates(endX, endY));
         scrollAction.release();
         driver.performTouchAction(scrollAction);
+        long touchEndTime = System.currentTimeMillis();
 
-        // because Android scrollbars are visible a bit after touch, we should wait for them to
-        // disappear before handing control back to the screenshotter
-        try { Thread.sleep(750); } catch (InterruptedException ignored) {}
+        waitForTouchScrollToSettle(touchEndTime);
 
         LastScrollData lastScrollData = EyesAppiumUtils.getLastScrollData(driver);
         curScrollPos = getScrollPosFromScrollData(contentSize, lastScrollData, supposedScrollAmt, isDown);
     }
 
+    /**
+     * Waits for a touch scroll to settle. Android scrollbars are visible a bit after touch, but waiting for them to
+     * disappear is left to {@link #waitForScrollbarsToFade()}, so scrolls which aren't followed by a screenshot
+     * don't pay for it.
+     * @param touchEndTime The time the touch action ended.
+     */
+    private void waitForTouchScrollToSettle(long touchEndTime) {
+        scrollIdleDetector.waitForIdle(scrollDataFingerprint, TOUCH_SCROLL_TIMEOUT);
+        scrollbarsFadeTime = touchEndTime + SCROLLBARS_FADE_DELAY;
+    }
+
+    /**
+     * Because Android scrollbars are visible a bit after touch, we should wait for them to disappear before taking a
+     * screenshot. Only the time left since the last touch scroll ended is waited.
+     */
+    public void waitForScrollbarsToFade() {
+        long timeToFade = scrollbarsFadeTime - System.currentTimeMillis();
+        scrollbarsFadeTime = 0;
+        if (timeToFade > 0) {
+            try { Thread.sleep(timeToFade); } catch (InterruptedException ignored) {}
+        }
+    }
+
     public Location scrollDown(boolean returnAbsoluteLocation) {
         scroll(true);
         return getCurrentPositionWithoutStatusBar(returnAbsoluteLocation);
@@ -192,25 +235,23 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
             scrollAction.release();
         }
         driver.performTouchAction(scrollAction);
+        long touchEndTime = System.currentTimeMillis();
 
         curScrollPos = new Location(curScrollPos.getX(), curScrollPos.getY() + startX);
 
-        // because Android scrollbars are visible a bit after touch, we should wait for them to
-        // disappear before handing control back to the screenshotter
-        try { Thread.sleep(750); } catch (InterruptedException ignored) {}
+        waitForTouchScrollToSettle(touchEndTime);
     }
 
     public boolean tryScrollWithHelperLibrary(String elementId, int offset, int step, int totalSteps) {
         boolean scrolled = false;
         try {
-            MobileElement hiddenElement = ((AndroidDriver<AndroidElement>) driver).findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelperEDT\")"));
-            if (hiddenElement != null) {
-                hiddenElement.setValue("scroll;"+elementId+";"+offset+";"+step+";"+totalSteps);
-                hiddenElement.click();
-                scrolled = true;
-                try { Thread.sleep(1000); } catch (InterruptedException ignored) {}
-                hiddenElement.clear();
-            }
+            // Resolve the helper element first, so we don't read the scroll state if the helper library isn't available
+            helperChannel.getCommandElement();
+            Object scrollState = scrollDataFingerprint.get();
+            MobileElement hiddenElement = helperChannel.sendCommand("scroll;"+elementId+";"+offset+";"+step+";"+totalSteps);
+            scrolled = true;
+            scrollIdleDetector.waitForChangeAndIdle(scrollDataFingerprint, scrollState, HELPER_SCROLL_TIMEOUT);
+            hiddenElement.clear();
         } catch (NoSuchElementException | StaleElementReferenceException e) {
             GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e);
         }
@@ -220,14 +261,12 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
     public boolean moveToTop(String elementId) {
         boolean scrolled = false;
         try {
-            MobileElement hiddenElement = ((AndroidDriver<AndroidElement>) driver).findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelperEDT\")"));
-            if (hiddenElement != null) {
-                hiddenElement.setValue("moveToTop;"+elementId+";0;-1");
-                hiddenElement.click();
-                scrolled = true;
-                try { Thread.sleep(1000); } catch (InterruptedException ignored) {}
-                hiddenElement.clear();
-            }
+            helperChannel.getCommandElement();
+            Object scrollState = scrollDataFingerprint.get();
+            MobileElement hiddenElement = helperChannel.sendCommand("moveToTop;"+elementId+";0;-1");
+            scrolled = true;
+            scrollIdleDetector.waitForChangeAndIdle(scrollDataFingerprint, scrollState, HELPER_SCROLL_TIMEOUT);
+            hiddenElement.clear();
         } catch (NoSuchElementException | StaleElementReferenceException e) {
             GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e);
         }
@@ -241,13 +280,9 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
         }
         String elementId = scrollRootElement.getAttribute("resourceId").split("/")[1];
         try {
-            MobileElement hiddenElement = ((AndroidDriver<AndroidElement>) driver).findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelperEDT\")"));
-            if (hiddenElement != null) {
-                hiddenElement.setValue("behaviorOffset;"+elementId+";0;0");
-                hiddenElement.click();
-                offset = Integer.parseInt(hiddenElement.getText());
-                hiddenElement.clear();
-            }
+            MobileElement hiddenElement = helperChannel.sendCommand("behaviorOffset;"+elementId+";0;0");
+            offset = Integer.parseInt(hiddenElement.getText());
+            hiddenElement.clear();
         } catch (NoSuchElementException | NumberFormatException | StaleElementReferenceException e) {
             GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e);
         }
@@ -257,14 +292,12 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
     public boolean tryScrollBehaviorOffsetWithHelperLibrary(String elementId, int offset) {
         boolean scrolled = false;
         try {
-            MobileElement hiddenElement = ((AndroidDriver<AndroidElement>) driver).findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelperEDT\")"));
-            if (hiddenElement != null) {
-                hiddenElement.setValue("behaviorScroll;"+elementId+";" + offset + ";0");
-                hiddenElement.click();
-                scrolled = true;
-                try { Thread.sleep(1500); } catch (InterruptedException ignored) {}
-                hiddenElement.clear();
-            }
+            helperChannel.getCommandElement();
+            Object scrollState = scrollDataFingerprint.get();
+            MobileElement hiddenElement = helperChannel.sendCommand("behaviorScroll;"+elementId+";" + offset + ";0");
+            scrolled = true;
+            scrollIdleDetector.waitForChangeAndIdle(scrollDataFingerprint, scrollState, HELPER_BEHAVIOR_SCROLL_TIMEOUT);
+            hiddenElement.clear();
         } catch (NoSuchElementException | NumberFormatException | StaleElementReferenceException e) {
             GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e);
         }
@@ -276,16 +309,12 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
         if (scrollRootElement != null) {
             String elementId = scrollRootElement.getAttribute("resourceId").split("/")[1];
             try {
-                MobileElement hiddenElement = ((AndroidDriver<AndroidElement>) driver).findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelperEDT\")"));
-                if (hiddenElement != null) {
-                    hiddenElement.setValue("className;"+elementId+";0;0");
-                    hiddenElement.click();
-                    className = hiddenElement.getText();
-                    if (className.isEmpty()) {
-                        className = null;
-                    }
-                    hiddenElement.clear();
+                MobileElement hiddenElement = helperChannel.sendCommand("className;"+elementId+";0;0");
+                className = hiddenElement.getText();
+                if (className.isEmpty()) {
+                    className = null;
                 }
+                hiddenElement.clear();
             } catch (Exception e) {
                 GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e);
             }
@@ -295,13 +324,16 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
 
     public void tryDumpVHSWithHelperLibrary() {
         try {
-            MobileElement hiddenElement = ((AndroidDriver<AndroidElement>) driver).findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelperEDT\")"));
-            if (hiddenElement != null) {
-                hiddenElement.setValue("dumpVHS;0;0;0");
-                hiddenElement.click();
-                try { Thread.sleep(5_000); } catch (InterruptedException ignored) {}
-                hiddenElement.clear();
-            }
+            final String command = "dumpVHS;0;0;0";
+            final MobileElement hiddenElement = helperChannel.sendCommand(command);
+            // The helper reports the end of the dump by replacing the command text
+            scrollIdleDetector.waitForChangeAndIdle(new ScrollIdleDetector.ScrollStateFingerprint() {
+                @Override
+                public Object get() {
+                    return hiddenElement.getText();
+                }
+            }, command, HELPER_DUMP_VHS_TIMEOUT);
+            hiddenElement.clear();
         } catch (NoSuchElementException | NumberFormatException | StaleElementReferenceException e) {
             GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e);
         }
@@ -477,7 +509,7 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
 
     @Override
     protected WebElement getFirstScrollableView() {
-        if (cachedScrollableView == null) {
+        if (getValidCachedScrollableView() == null) {
             WebElement scrollableView;
             if (scrollRootElement != null) {
                 scrollableView = driver.findElement(MobileBy.id(scrollRootElement.getAttribute("resourceId")));
@@ -509,14 +541,10 @@ public class AndroidScrollPositionProvider extends AppiumScrollPositionProvider
         if (version.length == 3 &&
                 Integer.parseInt(version[0]) >= 1 &&
                 Integer.parseInt(version[1]) >= 3) {
-            hiddenElement = ((AndroidDriver<AndroidElement>) driver).findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelperEDT\")"));
-            if (hiddenElement != null) {
-                String elementId = resourceId.split("/")[1];
-                hiddenElement.setValue("offset;"+elementId+";0;0;0");
-                hiddenElement.click();
-                scrollableContentSize = hiddenElement.getText();
-                hiddenElement.clear();
-            }
+            String elementId = resourceId.split("/")[1];
+            hiddenElement = helperChannel.sendCommand("offset;"+elementId+";0;0;0");
+            scrollableContentSize = hiddenElement.getText();
+            hiddenElement.clear();
         } else {
             hiddenElement = ((AndroidDriver<AndroidElement>) driver).findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelper\")"));
             if (hiddenElement != null) {
@@ -6,6 +6,7 @@ import com.applitools.eyes.capture.EyesScreenshotFactory;
 import com.applitools.eyes.capture.ImageProvider;
 import com.applitools.eyes.debug.DebugScreenshotsProvider;
 import com.applitools.eyes.logging.Stage;
+import com.applitools.eyes.logging.TraceLevel;
 import com.applitools.eyes.logging.Type;
 import com.applitools.eyes.positioning.PositionMemento;
 import com.applitools.eyes.positioning.PositionProvider;
@@ -16,17 +17,40 @@ import com.applitools.eyes.selenium.positioning.RegionPositionCompensation;
 import com.applitools.eyes.selenium.positioning.ScrollPositionProvider;
 import com.applitools.utils.ArgumentGuard;
 import com.applitools.utils.GeneralUtils;
+import com.applitools.utils.ImagePool;
+import com.applitools.utils.ImageTransform;
 import com.applitools.utils.ImageUtils;
+import com.applitools.utils.TiledCanvas;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openqa.selenium.WebElement;
 
 import java.awt.image.BufferedImage;
 import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 public class AppiumFullPageCaptureAlgorithm {
 
     protected static final int DEFAULT_STITCHING_ADJUSTMENT = 50;
 
+    // Decodes, crops and stitches captured parts while the device scrolls to the next position
+    private static final ExecutorService partProcessingExecutor = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "StitchWorker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
     protected Logger logger;
     protected final String testId;
     private final PositionProvider originProvider;
@@ -42,6 +66,8 @@ public class AppiumFullPageCaptureAlgorithm {
     protected Region regionInScreenshot;
     private double pixelRatio;
     private BufferedImage stitchedImage;
+    // Parts stitched into a canvas are scaled one by one, since scaling the entire canvas would copy it to the heap
+    private double stitchScaleRatio = 1;
     protected Location currentPosition;
     protected WebElement scrollRootElement;
 
@@ -57,6 +83,18 @@ public class AppiumFullPageCaptureAlgorithm {
 
     protected int statusBarHeight = 0;
 
+    // The first part is processed synchronously, and serves as a size reference for the parts processed in the background
+    private BufferedImage partSizeReference;
+    private RectangleSize cutPartSize;
+    private Future<?> lastScheduledPart;
+    private final List<Future<?>> pendingParts = new ArrayList<>();
+    // The regions in which the parts were actually stitched, in the order in which they were captured
+    private final List<Region> stitchedParts = Collections.synchronizedList(new ArrayList<Region>());
+    // Set once a part doesn't have the size of the reference part, so the next part sizes can't be predicted
+    private volatile boolean partSizeMismatch;
+    // Set once the capture failed, so the parts which weren't processed yet are skipped
+    private volatile boolean partsCancelled;
+
     public AppiumFullPageCaptureAlgorithm(Logger logger, String testId, PositionProvider originProvider,
                                           PositionProvider positionProvider,
                                           ScrollPositionProvider scrollProvider,
@@ -108,6 +146,32 @@ public class AppiumFullPageCaptureAlgorithm {
 
     protected RectangleSize captureAndStitchCurrentPart(Region partRegion) {
         GeneralUtils.sleep(waitBeforeScreenshots);
+        waitForScrollbarsToFade();
+        if (partSizeMismatch) {
+            // The part sizes can't be predicted, so the rest of the parts are processed synchronously, once the
+            // parts they overlap are stitched
+            stitchPendingParts();
+        }
+        if (!(imageProvider instanceof MobileImageProvider) || partSizeReference == null || partSizeMismatch) {
+            return captureAndStitchCurrentPartSync(partRegion);
+        }
+
+        Callable<BufferedImage> partDecoder = ((MobileImageProvider) imageProvider).captureImage();
+
+        // The part isn't decoded yet, so its region is calculated using the reference part, which has the same size
+        setRegionInScreenshot(partSizeReference, partRegion, new NullRegionPositionCompensation());
+        RectangleSize partSize = regionInScreenshot.isEmpty() ? cutPartSize : regionInScreenshot.getSize();
+        schedulePart(partDecoder, new Region(partRegion), new Region(regionInScreenshot), currentPosition);
+        return partSize;
+    }
+
+    private void waitForScrollbarsToFade() {
+        if (scrollProvider instanceof AndroidScrollPositionProvider) {
+            ((AndroidScrollPositionProvider) scrollProvider).waitForScrollbarsToFade();
+        }
+    }
+
+    private RectangleSize captureAndStitchCurrentPartSync(Region partRegion) {
         BufferedImage partImage = imageProvider.getImage();
         debugScreenshotsProvider.save(partImage,
                 "original-scrolled=" + currentPosition.toStringForFilename());
@@ -116,10 +180,115 @@ public class AppiumFullPageCaptureAlgorithm {
         // about, since from now on we just want the scroll view, not the entire view
         setRegionInScreenshot(partImage, partRegion, new NullRegionPositionCompensation());
 
-        partImage = cropPartToRegion(partImage, partRegion);
+        if (imageProvider instanceof MobileImageProvider) {
+            partSizeReference = partImage;
+            BufferedImage cutPartImage = cutProvider instanceof NullCutProvider ? partImage : cutProvider.cut(partImage);
+            cutPartSize = new RectangleSize(cutPartImage.getWidth(), cutPartImage.getHeight());
+        }
+
+        BufferedImage croppedPartImage = cropPartToRegion(partImage, partRegion);
+
+        stitchPartIntoContainer(croppedPartImage);
+        RectangleSize partSize = new RectangleSize(croppedPartImage.getWidth(), croppedPartImage.getHeight());
+        stitchedParts.add(new Region(currentPosition, partSize));
+
+        // The reference part is kept for sizing the next parts
+        ImagePool.getDefault().release(croppedPartImage == partSizeReference ? null : croppedPartImage,
+                partImage == partSizeReference ? null : partImage);
+        return partSize;
+    }
+
+    private void schedulePart(final Callable<BufferedImage> partDecoder, final Region partRegion,
+                              final Region plannedRegionInScreenshot, final Location position) {
+        final Future<?> previousPart = lastScheduledPart;
+        final RectangleSize referenceSize = new RectangleSize(partSizeReference.getWidth(), partSizeReference.getHeight());
+        lastScheduledPart = partProcessingExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                if (partsCancelled) {
+                    return null;
+                }
+                BufferedImage decodedImage = partDecoder.call();
+                BufferedImage partImage = decodedImage;
+                debugScreenshotsProvider.save(partImage,
+                        "original-scrolled=" + position.toStringForFilename());
+
+                Region partRegionInScreenshot = plannedRegionInScreenshot;
+                if (partImage.getWidth() != referenceSize.getWidth() || partImage.getHeight() != referenceSize.getHeight()) {
+                    logger.log(TraceLevel.Warn, testId, Stage.CHECK, Type.CAPTURE_SCREENSHOT,
+                            Pair.of("message", "Part size differs from the reference part size"),
+                            Pair.of("partSize", new RectangleSize(partImage.getWidth(), partImage.getHeight())),
+                            Pair.of("referenceSize", referenceSize));
+                    partRegionInScreenshot = getRegionInScreenshot(new Region(partRegion), partImage, pixelRatio,
+                            screenshotFactory.makeScreenshot(partImage), new NullRegionPositionCompensation());
+                    partSizeMismatch = true;
+                }
+
+                partImage = cropPartToRegion(partImage, partRegion, partRegionInScreenshot, position);
+
+                // Parts overlap, so they must be stitched in the order in which they were captured
+                if (previousPart != null) {
+                    previousPart.get();
+                }
+                if (partsCancelled) {
+                    ImagePool.getDefault().release(decodedImage, partImage);
+                    return null;
+                }
+                stitchPartIntoContainer(partImage, position);
+                stitchedParts.add(new Region(position, new RectangleSize(partImage.getWidth(), partImage.getHeight())));
+                ImagePool.getDefault().release(decodedImage, partImage);
+                return null;
+            }
+        });
+        pendingParts.add(lastScheduledPart);
+    }
+
+    /**
+     * Waits until all the parts processed in the background are stitched. If a part failed, the rest of the parts
+     * are cancelled.
+     */
+    private void stitchPendingParts() {
+        boolean isStitched = false;
+        try {
+            for (Future<?> part : pendingParts) {
+                part.get();
+            }
+            isStitched = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EyesException("Interrupted while stitching the screenshot parts", e);
+        } catch (ExecutionException e) {
+            throw new EyesException("Failed stitching a screenshot part", e.getCause());
+        } finally {
+            if (!isStitched) {
+                cancelPendingParts();
+            }
+            pendingParts.clear();
+            lastScheduledPart = null;
+            partSizeReference = null;
+        }
+    }
 
-        stitchPartIntoContainer(partImage);
-        return new RectangleSize(partImage.getWidth(), partImage.getHeight());
+    /**
+     * Skips the parts which weren't processed yet, and waits for the ones in progress, so none of them is stitched
+     * after the capture failed.
+     */
+    private void cancelPendingParts() {
+        partsCancelled = true;
+        try {
+            for (Future<?> part : pendingParts) {
+                try {
+                    part.get();
+                } catch (ExecutionException ignored) {
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pendingParts.clear();
+            lastScheduledPart = null;
+            partSizeReference = null;
+        }
     }
 
     protected void captureAndStitchTailParts(RectangleSize entireSize, RectangleSize initialPartSize) {
@@ -255,6 +424,7 @@ public class AppiumFullPageCaptureAlgorithm {
 
     private BufferedImage getTopLeftScreenshot() {
         moveToTopLeft(0, 0, 0, 0);
+        waitForScrollbarsToFade();
         BufferedImage image = imageProvider.getImage();
         if (imageProvider instanceof MobileImageProvider) {
             ((MobileImageProvider) imageProvider).setCaptureStatusBar(false);
@@ -318,20 +488,26 @@ public class AppiumFullPageCaptureAlgorithm {
     }
 
     protected BufferedImage cropPartToRegion(BufferedImage partImage, Region partRegion) {
+        return cropPartToRegion(partImage, partRegion, regionInScreenshot, currentPosition);
+    }
+
+    private BufferedImage cropPartToRegion(BufferedImage partImage, Region partRegion,
+                                           Region partRegionInScreenshot, Location position) {
 
         // FIXME - cropping should be overlaid (see previous comment re cropping)
         if (!(cutProvider instanceof NullCutProvider)) {
             partImage = cutProvider.cut(partImage);
             debugScreenshotsProvider.save(partImage,
-                    "original-scrolled-cut-" + currentPosition
+                    "original-scrolled-cut-" + position
                             .toStringForFilename());
         }
 
-        if (!regionInScreenshot.isEmpty()) {
-            partImage = ImageUtils.getImagePart(partImage, regionInScreenshot);
+        // The cut and the crop are views of the part, which is copied once, when it is stitched
+        if (!partRegionInScreenshot.isEmpty()) {
+            partImage = ImageUtils.cropImage(partImage, partRegionInScreenshot);
             saveDebugScreenshotPart(partImage, partRegion,
                     "original-scrolled-"
-                            + currentPosition.toStringForFilename());
+                            + position.toStringForFilename());
         }
 
         return partImage;
@@ -340,6 +516,18 @@ public class AppiumFullPageCaptureAlgorithm {
     protected void cleanupStitch(PositionMemento originalStitchedState,
                                  Location lastSuccessfulLocation,
                                  RectangleSize lastSuccessfulPartSize, RectangleSize entireSize) {
+        stitchPendingParts();
+
+        // The size of a part processed in the background was predicted, so the actual size of the last part is used
+        synchronized (stitchedParts) {
+            if (!stitchedParts.isEmpty()) {
+                Region lastStitchedPart = stitchedParts.get(stitchedParts.size() - 1);
+                lastSuccessfulLocation = lastStitchedPart.getLocation();
+                lastSuccessfulPartSize = lastStitchedPart.getSize();
+            }
+            stitchedParts.clear();
+        }
+
         if (originalStitchedState != null) {
             positionProvider.restoreState(originalStitchedState);
             originProvider.restoreState(originalPosition);
@@ -347,13 +535,19 @@ public class AppiumFullPageCaptureAlgorithm {
         // If the actual image size is smaller than the extracted size, we crop the image.
         int actualImageWidth = lastSuccessfulLocation.getX() + lastSuccessfulPartSize.getWidth();
         int actualImageHeight = lastSuccessfulLocation.getY() + lastSuccessfulPartSize.getHeight();
+        if (stitchScaleRatio != 1) {
+            RectangleSize actualImageSize = getScaledStitchedSize(actualImageWidth, actualImageHeight);
+            actualImageWidth = actualImageSize.getWidth();
+            actualImageHeight = actualImageSize.getHeight();
+        }
 
         if (actualImageWidth < stitchedImage.getWidth() || actualImageHeight < stitchedImage
                 .getHeight()) {
-            stitchedImage = ImageUtils.getImagePart(stitchedImage,
-                    new Region(0, 0,
-                            Math.min(actualImageWidth, stitchedImage.getWidth()),
-                            Math.min(actualImageHeight, stitchedImage.getHeight())));
+            BufferedImage untrimmedImage = stitchedImage;
+            stitchedImage = TiledCanvas.trim(stitchedImage,
+                    Math.min(actualImageWidth, stitchedImage.getWidth()),
+                    Math.min(actualImageHeight, stitchedImage.getHeight()));
+            ImagePool.getDefault().release(untrimmedImage);
         }
 
         debugScreenshotsProvider.save(stitchedImage, "stitched");
@@ -361,9 +555,27 @@ public class AppiumFullPageCaptureAlgorithm {
     }
 
     protected void stitchPartIntoContainer(BufferedImage partImage) {
+        stitchPartIntoContainer(partImage, currentPosition);
+    }
+
+    private void stitchPartIntoContainer(BufferedImage partImage, Location position) {
         // We should stitch images from the start of X coordinate
-        stitchedImage.getRaster()
-                .setRect(0, currentPosition.getY(), partImage.getData());
+        if (stitchScaleRatio == 1) {
+            TiledCanvas.paste(stitchedImage, partImage, 0, position.getY());
+            return;
+        }
+        new ImageTransform(partImage).scale(stitchScaleRatio)
+                .drawInto(stitchedImage, 0, (int) Math.round(position.getY() * stitchScaleRatio));
+    }
+
+    /**
+     * @return The size of a stitched image of the given size once it is scaled, the same as the size of a mobile
+     * screenshot scaled by {@link ImageUtils#scaleImage(BufferedImage, double, boolean)}.
+     */
+    private RectangleSize getScaledStitchedSize(int width, int height) {
+        int scaledWidth = (int) Math.ceil(width * stitchScaleRatio);
+        int scaledHeight = (int) Math.ceil(scaledWidth * ((double) height / (double) width));
+        return new RectangleSize(scaledWidth, scaledHeight);
     }
 
 
@@ -380,6 +592,11 @@ public class AppiumFullPageCaptureAlgorithm {
 
         // Saving the original position (in case we were already in the outermost frame).
         originalPosition = originProvider.getState();
+        partSizeReference = null;
+        partSizeMismatch = false;
+        partsCancelled = false;
+        stitchedParts.clear();
+        stitchScaleRatio = 1;
 
         // first, scroll to the origin and get the top left screenshot
         BufferedImage image = getTopLeftScreenshot();
@@ -417,25 +634,49 @@ public class AppiumFullPageCaptureAlgorithm {
         //Notice stitchedImage uses the same type of image as the screenshots.
         // Use initial image width for stitched image to prevent wrong image part size
         // if scrollable view has some padding or margins
-        stitchedImage = new BufferedImage(
-                image.getWidth(), entireSize.getHeight() + statusBarHeight, image.getType());
+        // Very long scrollable views are stitched into a canvas on disk, rather than on the heap
+        int stitchedWidth = image.getWidth();
+        int stitchedHeight = entireSize.getHeight() + statusBarHeight;
+        if (image.getType() != ImageUtils.REQUIRED_IMAGE_TYPE) {
+            stitchedImage = new BufferedImage(stitchedWidth, stitchedHeight, image.getType());
+        } else {
+            if (pixelRatio != 1.0 && (long) stitchedWidth * stitchedHeight > TiledCanvas.MAX_HEAP_PIXELS) {
+                stitchScaleRatio = scaleProvider.getScaleRatio();
+                RectangleSize scaledSize = getScaledStitchedSize(stitchedWidth, stitchedHeight);
+                stitchedWidth = scaledSize.getWidth();
+                stitchedHeight = scaledSize.getHeight();
+            }
+            stitchedImage = TiledCanvas.createForStitching(stitchedWidth, stitchedHeight);
+        }
 
         // First of all we want to stitch the screenshot we already captured at (0, 0)
-        Raster initialPart = image.getData();
+        Raster initialPart = image.getRaster();
         RectangleSize initialPartSize = new RectangleSize(initialPart.getWidth(),
                 initialPart.getHeight());
         logger.log(testId, Stage.CHECK, Type.CAPTURE_SCREENSHOT, Pair.of("initialPart", initialPartSize));
-        stitchedImage.getRaster().setRect(0, 0, initialPart);
+        stitchPartIntoContainer(image, new Location(0, 0));
 
         /* TODO need to determine if there is anything in the initial part which should be cut
            off and reapplied at the bottom of the stitched image. Can do this by checking whether
            the scrolling view has a height less than the screen height */
 
-        captureAndStitchTailParts(entireSize, initialPartSize);
+        boolean isStitched = false;
+        try {
+            captureAndStitchTailParts(entireSize, initialPartSize);
+            isStitched = true;
+        } finally {
+            if (!isStitched) {
+                cancelPendingParts();
+            }
+        }
 
-        // Finally, scale the image appropriately
-        if (pixelRatio != 1.0) {
+        // Finally, scale the image appropriately, unless its parts were already scaled
+        if (pixelRatio != 1.0 && stitchScaleRatio == 1) {
+            BufferedImage unscaledImage = stitchedImage;
             stitchedImage = ImageUtils.scaleImage(stitchedImage, scaleProvider.getScaleRatio(), true);
+            if (stitchedImage != unscaledImage) {
+                ImagePool.getDefault().release(unscaledImage);
+            }
             debugScreenshotsProvider.save(stitchedImage, "scaled");
         }
 
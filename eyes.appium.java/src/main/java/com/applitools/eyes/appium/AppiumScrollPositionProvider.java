@@ -33,6 +33,9 @@ public abstract class AppiumScrollPositionProvider implements ScrollPositionProv
     private WebElement firstVisibleChild;
     private boolean isVerticalScrollGapSet;
 
+    // The scrollable view is kept between checks, and validated once before it is used in the next check
+    private boolean shouldValidateCachedScrollableView = false;
+
     public AppiumScrollPositionProvider(Logger logger, EyesAppiumDriver driver) {
         ArgumentGuard.notNull(logger, "logger");
         ArgumentGuard.notNull(driver, "driver");
@@ -208,22 +211,42 @@ public abstract class AppiumScrollPositionProvider implements ScrollPositionProv
     public abstract Region getElementRegion(WebElement element, boolean shouldStitchContent, Boolean statusBarExists);
 
     protected WebElement getFirstScrollableView() {
-        if (cachedScrollableView != null) {
+        if (getValidCachedScrollableView() != null) {
             return cachedScrollableView;
         }
         cachedScrollableView = EyesAppiumUtils.getFirstScrollableView(driver);
         return cachedScrollableView;
     }
 
+    /**
+     * @return The scrollable view found in a previous check if it is still displayed, {@code null} otherwise.
+     */
+    protected WebElement getValidCachedScrollableView() {
+        if (cachedScrollableView != null && shouldValidateCachedScrollableView) {
+            shouldValidateCachedScrollableView = false;
+            try {
+                if (!cachedScrollableView.isDisplayed()) {
+                    cachedScrollableView = null;
+                }
+            } catch (WebDriverException e) {
+                cachedScrollableView = null;
+            }
+        }
+        return cachedScrollableView;
+    }
+
     public void cleanupCachedData() {
         this.contentSize = null;
         this.firstVisibleChild = null;
-        this.cachedScrollableView = null;
+        this.shouldValidateCachedScrollableView = this.cachedScrollableView != null;
         this.cachedScrollableViewLocation = null;
         this.cachedScrollableViewRegion = null;
     }
 
     public void setScrollRootElement(WebElement scrollRootElement) {
+        if (scrollRootElement == null ? this.scrollRootElement != null : !scrollRootElement.equals(this.scrollRootElement)) {
+            this.cachedScrollableView = null;
+        }
         this.scrollRootElement = scrollRootElement;
     }
 }
@@ -0,0 +1,125 @@
+package com.applitools.eyes.appium;
+
+import com.applitools.utils.GeneralUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache of device metrics which survives between sessions, kept in a JSON file. Entries are keyed by the device
+ * model, OS version, orientation and app build. Each entry also stores a fingerprint of cheap session details,
+ * which is compared on the first use in a session, so a stale entry is never returned.
+ * Scrollable content sizes aren't cached, since they depend on the data the app shows rather than only on the
+ * device and the app build.
+ * The cache is enabled by setting the {@value #CACHE_FILE_ENV_VAR} environment variable to the path of the file.
+ */
+public class DeviceMetricsCache {
+
+    static final String CACHE_FILE_ENV_VAR = "APPLITOOLS_DEVICE_METRICS_CACHE";
+
+    private static DeviceMetricsCache defaultCache;
+
+    private final File file;
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    public DeviceMetricsCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return The cache configured by the environment, or {@code null} if the cache isn't enabled.
+     */
+    public static synchronized DeviceMetricsCache getDefault() {
+        String path = GeneralUtils.getEnvString(CACHE_FILE_ENV_VAR);
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        if (defaultCache == null || !defaultCache.file.getPath().equals(path)) {
+            defaultCache = new DeviceMetricsCache(new File(path));
+        }
+        return defaultCache;
+    }
+
+    /**
+     * @return The cached system bars heights, or {@code null} if there is no valid entry for the device.
+     */
+    public synchronized Map<String, Integer> getSystemBarsHeights(String deviceKey, String fingerprint) {
+        DeviceMetrics metrics = readEntries().get(deviceKey);
+        if (metrics == null || !fingerprint.equals(metrics.getFingerprint())) {
+            return null;
+        }
+        return metrics.getSystemBarsHeights();
+    }
+
+    /**
+     * Caches the system bars heights of a device. A bar which isn't shown (e.g., a hidden navigation bar) has a
+     * {@code null} height, which is cached as is.
+     */
+    public synchronized void putSystemBarsHeights(String deviceKey, String fingerprint, Map<String, Integer> systemBarsHeights) {
+        Map<String, DeviceMetrics> entries = readEntries();
+        DeviceMetrics metrics = new DeviceMetrics();
+        metrics.setFingerprint(fingerprint);
+        metrics.setSystemBarsHeights(new HashMap<>(systemBarsHeights));
+        entries.put(deviceKey, metrics);
+        writeEntries(entries);
+    }
+
+    private Map<String, DeviceMetrics> readEntries() {
+        if (!file.isFile()) {
+            return new HashMap<>();
+        }
+        try {
+            return jsonMapper.readValue(file, new TypeReference<Map<String, DeviceMetrics>>() {});
+        } catch (IOException e) {
+            // A corrupted cache is treated as an empty one, and is overwritten by the next write
+            return new HashMap<>();
+        }
+    }
+
+    private void writeEntries(Map<String, DeviceMetrics> entries) {
+        // Other processes might read the file at the same time, so it is replaced only once it is completely written
+        File tempFile = null;
+        try {
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+                return;
+            }
+            tempFile = File.createTempFile("device-metrics", ".tmp", directory);
+            jsonMapper.writeValue(tempFile, entries);
+            if (!tempFile.renameTo(file)) {
+                file.delete();
+                tempFile.renameTo(file);
+            }
+        } catch (IOException ignored) {
+        } finally {
+            if (tempFile != null && tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    public static class DeviceMetrics {
+        private String fingerprint;
+        private Map<String, Integer> systemBarsHeights;
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public Map<String, Integer> getSystemBarsHeights() {
+            return systemBarsHeights;
+        }
+
+        public void setSystemBarsHeights(Map<String, Integer> systemBarsHeights) {
+            this.systemBarsHeights = systemBarsHeights;
+        }
+    }
+}
@@ -408,14 +408,22 @@ public class Eyes extends EyesBase {
         }
 
         EyesScreenshot screenshot = getFullPageScreenshot();
+        List<MatchWindowData> regionsData = new ArrayList<>();
         for (int i = 0; i < checkSettings.length; ++i) {
             if (((Hashtable<Integer, GetSimpleRegion>) getRegions).containsKey(i)) {
                 GetSimpleRegion getRegion = getRegions.get(i);
                 ICheckSettingsInternal checkSettingsInternal = checkSettingsInternalDictionary.get(i);
                 List<EyesScreenshot> subScreenshots = getSubScreenshots(screenshot, getRegion);
-                matchRegion(checkSettingsInternal, subScreenshots);
+                regionsData.addAll(prepareRegionsForMatch(checkSettingsInternal, subScreenshots));
             }
         }
+
+        // All the regions are cut from the same capture, so they are uploaded together.
+        // The matches are still performed in order, since their order determines the order of the steps.
+        runner.uploadImages(getTestId(), regionsData);
+        for (MatchWindowData data : regionsData) {
+            performMatch(data);
+        }
     }
 
     private List<EyesScreenshot> getSubScreenshots(EyesScreenshot screenshot, GetSimpleRegion getRegion) {
@@ -428,18 +436,19 @@ public class Eyes extends EyesBase {
         return subScreenshots;
     }
 
-    private void matchRegion(ICheckSettingsInternal checkSettingsInternal, List<EyesScreenshot> subScreenshots) {
+    private List<MatchWindowData> prepareRegionsForMatch(ICheckSettingsInternal checkSettingsInternal, List<EyesScreenshot> subScreenshots) {
         String name = checkSettingsInternal.getName();
+        List<MatchWindowData> regionsData = new ArrayList<>();
         for (EyesScreenshot subScreenshot : subScreenshots) {
             debugScreenshotsProvider.save(subScreenshot.getImage(), String.format("subscreenshot_%s", name));
 
             ImageMatchSettings ims = MatchWindowTask.createImageMatchSettings(checkSettingsInternal, subScreenshot, this);
             Location location = subScreenshot.getLocationInScreenshot(Location.ZERO, CoordinatesType.SCREENSHOT_AS_IS);
             AppOutput appOutput = new AppOutput(name, subScreenshot, null, null, location);
-            MatchWindowData data = prepareForMatch(checkSettingsInternal, new ArrayList<Trigger>(), appOutput, name, false,
-                    ims, null, getAppName());
-            performMatch(data);
+            regionsData.add(prepareForMatch(checkSettingsInternal, new ArrayList<Trigger>(), appOutput, name, false,
+                    ims, null, getAppName()));
         }
+        return regionsData;
     }
 
     public void check(ICheckSettings checkSettings) {
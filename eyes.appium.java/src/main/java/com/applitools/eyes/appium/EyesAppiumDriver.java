@@ -125,14 +125,61 @@ public class EyesAppiumDriver extends EyesWebDriver {
         return deviceHeight;
     }
 
+    /**
+     * @return The system bars heights which match the cached session details, used for sizing the viewport. They are
+     * looked up once per session, so screenshots, which must match the current orientation and bars visibility,
+     * query the device instead.
+     */
     public Map<String, Integer> getSystemBarsHeights() {
         if (systemBarsHeights == null) {
-            systemBarsHeights = EyesAppiumUtils.getSystemBarsHeights(this);
+            DeviceMetricsCache metricsCache = DeviceMetricsCache.getDefault();
+            if (metricsCache == null) {
+                systemBarsHeights = EyesAppiumUtils.getSystemBarsHeights(this);
+                return systemBarsHeights;
+            }
+
+            String deviceKey = getDeviceMetricsKey();
+            String fingerprint = getDeviceMetricsFingerprint();
+            systemBarsHeights = metricsCache.getSystemBarsHeights(deviceKey, fingerprint);
+            if (systemBarsHeights == null) {
+                systemBarsHeights = EyesAppiumUtils.getSystemBarsHeights(this);
+                metricsCache.putSystemBarsHeights(deviceKey, fingerprint, systemBarsHeights);
+            }
+            logger.log(TraceLevel.Debug, getTestId(), Stage.GENERAL,
+                    Pair.of("deviceMetricsKey", deviceKey),
+                    Pair.of("systemBarsHeights", systemBarsHeights));
         }
 
         return systemBarsHeights;
     }
 
+    /**
+     * @return A key identifying the device model, OS version, orientation and app build. The orientation is the one
+     * of the cached session details, which the heights returned by {@link #getSystemBarsHeights()} describe.
+     */
+    private String getDeviceMetricsKey() {
+        Map<String, Long> rectMap = (Map<String, Long>) getCachedSessionDetails().get("viewportRect");
+        boolean isLandscape = rectMap != null && rectMap.get("width") > rectMap.get("height");
+        Object deviceModel = getCachedSessionDetails().get("deviceModel");
+        Capabilities capabilities = driver.getCapabilities();
+        return String.valueOf(deviceModel != null ? deviceModel : EyesDriverUtils.getMobileDeviceName(this)) + "|" +
+                capabilities.getPlatform() + "|" +
+                EyesDriverUtils.getPlatformVersion(driver) + "|" +
+                (isLandscape ? "landscape" : "portrait") + "|" +
+                capabilities.getCapability("app") + "|" +
+                capabilities.getCapability("appPackage") + "|" +
+                capabilities.getCapability("bundleId");
+    }
+
+    /**
+     * @return Session details which are fetched anyway, and change whenever the system bars metrics change.
+     */
+    private String getDeviceMetricsFingerprint() {
+        Map<String, Object> details = getCachedSessionDetails();
+        return details.get("deviceScreenSize") + "|" + details.get("statBarHeight") + "|" +
+                details.get("viewportRect") + "|" + details.get("pixelRatio");
+    }
+
     @Override
     protected double getDevicePixelRatioInner() {
         Object pixelRatio = getCachedSessionDetails().get("pixelRatio");
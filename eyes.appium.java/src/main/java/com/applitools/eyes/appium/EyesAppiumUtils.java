@@ -23,6 +23,7 @@ import javax.annotation.Nullable;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -32,11 +33,39 @@ public class EyesAppiumUtils {
     private static final String NATIVE_APP = "NATIVE_APP";
     static String SCROLLVIEW_XPATH = "//*[@scrollable='true']";
     private static String FIRST_VIS_XPATH = "/*[@firstVisible='true']";
+    private static final String SCROLLVIEW_UIAUTOMATOR = "new UiSelector().scrollable(true)";
+    private static final String SCROLLVIEW_IOS_CLASS_CHAIN = "**/*[`type IN {'XCUIElementTypeScrollView', " +
+            "'XCUIElementTypeTable', 'XCUIElementTypeCollectionView'}`]";
 
     public static final String STATUS_BAR = "statusBar";
     public static final String NAVIGATION_BAR = "navigationBar";
 
+    /**
+     * Finds the first scrollable view. Native locator strategies are preferred, since XPath queries force Appium
+     * to dump the entire view hierarchy. XPath is only used as a fallback when the native strategy isn't supported,
+     * so a screen without a scrollable view waits for the implicit wait once, rather than once per query.
+     */
     public static WebElement getFirstScrollableView(WebDriver driver) {
+        By nativeLocator = null;
+        if (EyesDriverUtils.isAndroid(driver)) {
+            nativeLocator = MobileBy.AndroidUIAutomator(SCROLLVIEW_UIAUTOMATOR);
+        } else if (EyesDriverUtils.isIOS(driver)) {
+            nativeLocator = MobileBy.iOSClassChain(SCROLLVIEW_IOS_CLASS_CHAIN);
+        }
+
+        if (nativeLocator != null) {
+            List<WebElement> scrollableViews = null;
+            try {
+                scrollableViews = driver.findElements(nativeLocator);
+            } catch (WebDriverException ignored) {
+            }
+            if (scrollableViews != null) {
+                if (scrollableViews.isEmpty()) {
+                    throw new NoSuchElementException("No scrollable view found using " + nativeLocator);
+                }
+                return scrollableViews.get(0);
+            }
+        }
         return driver.findElement(By.xpath(SCROLLVIEW_XPATH));
     }
 
@@ -232,22 +261,7 @@ public class EyesAppiumUtils {
     public static String getHelperLibraryVersion(EyesAppiumDriver driver, Logger logger) {
         String version = "";
         if (driver.getRemoteWebDriver() instanceof AndroidDriver) {
-            try {
-                WebElement hiddenElement = driver.getRemoteWebDriver().findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelper_Version\")"));
-                if (hiddenElement != null) {
-                    version = hiddenElement.getText();
-                }
-            } catch (NoSuchElementException | StaleElementReferenceException ignored) {
-            }
-            if (version == null) {
-                try {
-                    WebElement hiddenElement = driver.getRemoteWebDriver().findElement(MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelper\")"));
-                    if (hiddenElement != null) {
-                        version = "1.0.0";
-                    }
-                } catch (NoSuchElementException | StaleElementReferenceException ignored) {
-                }
-            }
+            version = HelperLibraryChannel.getChannel((AndroidDriver<?>) driver.getRemoteWebDriver()).getVersion();
         }
         logger.log(TraceLevel.Debug, driver.getTestId(), Stage.CHECK,
                 Pair.of("helperLibraryVersion", version));
@@ -0,0 +1,104 @@
+package com.applitools.eyes.appium;
+
+import io.appium.java_client.MobileBy;
+import io.appium.java_client.MobileElement;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.AndroidElement;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A channel to the Android helper library, which is controlled by writing commands to its hidden element.
+ * The hidden element and the library version are resolved once per session, and the element is resolved again
+ * only when its handle becomes stale.
+ */
+public class HelperLibraryChannel {
+
+    private static final By COMMAND_ELEMENT = MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelperEDT\")");
+    private static final By VERSION_ELEMENT = MobileBy.AndroidUIAutomator("new UiSelector().description(\"EyesAppiumHelper_Version\")");
+
+    private static final Map<AndroidDriver<?>, HelperLibraryChannel> channels =
+            Collections.synchronizedMap(new WeakHashMap<AndroidDriver<?>, HelperLibraryChannel>());
+
+    // Channels are values of a weak map keyed by the driver, so they mustn't keep the driver reachable
+    private final WeakReference<AndroidDriver<AndroidElement>> driverReference;
+    private MobileElement commandElement;
+    private String version;
+
+    private HelperLibraryChannel(AndroidDriver<AndroidElement> driver) {
+        this.driverReference = new WeakReference<>(driver);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static HelperLibraryChannel getChannel(AndroidDriver<?> driver) {
+        synchronized (channels) {
+            HelperLibraryChannel channel = channels.get(driver);
+            if (channel == null) {
+                channel = new HelperLibraryChannel((AndroidDriver<AndroidElement>) driver);
+                channels.put(driver, channel);
+            }
+            return channel;
+        }
+    }
+
+    /**
+     * @return The hidden element commands are written to.
+     * @throws NoSuchElementException If the helper library isn't available.
+     */
+    public synchronized MobileElement getCommandElement() {
+        if (commandElement == null) {
+            commandElement = getDriver().findElement(COMMAND_ELEMENT);
+        }
+        return commandElement;
+    }
+
+    /**
+     * Writes a command to the hidden element and triggers it. If the cached element is stale, it is resolved again
+     * before the command is written.
+     * @param command The command to send.
+     * @return The hidden element, for reading the command result.
+     * @throws NoSuchElementException If the helper library isn't available.
+     */
+    public synchronized MobileElement sendCommand(String command) {
+        MobileElement element = getCommandElement();
+        try {
+            element.setValue(command);
+        } catch (StaleElementReferenceException e) {
+            commandElement = null;
+            element = getCommandElement();
+            element.setValue(command);
+        }
+        element.click();
+        return element;
+    }
+
+    /**
+     * @return The helper library version, or an empty string if the helper library isn't available. Either result
+     * is cached for the session, so a missing library doesn't pay the implicit wait on every call.
+     */
+    public synchronized String getVersion() {
+        if (version == null) {
+            String helperVersion = null;
+            try {
+                helperVersion = getDriver().findElement(VERSION_ELEMENT).getText();
+            } catch (NoSuchElementException | StaleElementReferenceException ignored) {
+            }
+            version = helperVersion == null ? "" : helperVersion;
+        }
+        return version;
+    }
+
+    private AndroidDriver<AndroidElement> getDriver() {
+        AndroidDriver<AndroidElement> driver = driverReference.get();
+        if (driver == null) {
+            throw new IllegalStateException("The driver of the helper library channel was released");
+        }
+        return driver;
+    }
+}
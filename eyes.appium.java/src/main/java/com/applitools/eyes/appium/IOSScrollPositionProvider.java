@@ -8,7 +8,6 @@ import com.applitools.eyes.logging.TraceLevel;
 import com.applitools.eyes.positioning.PositionMemento;
 import com.applitools.eyes.selenium.EyesDriverUtils;
 import com.applitools.utils.GeneralUtils;
-import com.applitools.utils.ImageUtils;
 import io.appium.java_client.MobileBy;
 import io.appium.java_client.TouchAction;
 import io.appium.java_client.remote.MobileCapabilityType;
@@ -18,7 +17,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.openqa.selenium.*;
 
 import javax.annotation.Nullable;
-import java.awt.image.BufferedImage;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
@@ -29,10 +27,23 @@ public class IOSScrollPositionProvider extends AppiumScrollPositionProvider {
     private static final String SCROLL_DIRECTION_DOWN = "down";
     private static final String SCROLL_DIRECTION_LEFT = "left";
     private static final String SCROLL_DIRECTION_RIGHT = "right";
+    private static final String CONTENT_OFFSET_LABEL = "applitools_content_offset_label";
+    private static final String CONTENT_SIZE_LABEL = "applitools_content_size_label";
+
+    // Maximal times to wait (in milliseconds), which used to be fixed sleeps
+    private static final int TOUCH_SCROLL_TIMEOUT = 1000;
+    private static final int HELPER_LABEL_TIMEOUT = 500;
+    private static final int HELPER_LABEL_POLL_INTERVAL = 50;
+
     private WebElement firstVisibleChild;
 
+    private final ScrollIdleDetector scrollIdleDetector;
+    private final ScrollDiagnostics scrollDiagnostics;
+
     public IOSScrollPositionProvider(Logger logger, EyesAppiumDriver driver) {
         super(logger, driver);
+        scrollIdleDetector = new ScrollIdleDetector(logger, driver.getTestId());
+        scrollDiagnostics = new ScrollDiagnostics(logger, driver);
     }
 
     /**
@@ -104,10 +115,8 @@ public class IOSScrollPositionProvider extends AppiumScrollPositionProvider {
     public Location getCurrentPositionWithoutStatusBar(boolean absolute) {
         WebElement activeScroll = getFirstScrollableView();
         if (activeScroll.getAttribute("type").equals("XCUIElementTypeCollectionView")) {
-            triggerHelperButton();
             try {
-                WebElement offsetLabel = driver.findElement(MobileBy.name("applitools_content_offset_label"));
-                int contentOffset = (int) Double.parseDouble(offsetLabel.getText().split(",")[1].trim().replace("}", ""));
+                int contentOffset = (int) Double.parseDouble(readHelperLabel(CONTENT_OFFSET_LABEL).split(",")[1].trim().replace("}", ""));
 
                 Region region = getScrollableViewRegion();
                 return new Location(region.getLeft(), region.getTop() + contentOffset - getStatusBarHeight());
@@ -128,11 +137,8 @@ public class IOSScrollPositionProvider extends AppiumScrollPositionProvider {
         try {
             WebElement activeScroll = getFirstScrollableView();
             if (activeScroll.getAttribute("type").equals("XCUIElementTypeCollectionView")) {
-                triggerHelperButton();
                 try {
-                    WebElement offsetLabel = driver.findElement(MobileBy.name("applitools_content_offset_label"));
-                    try { Thread.sleep(500); } catch (InterruptedException ignored) {}
-                    int contentOffset = (int) Double.parseDouble(offsetLabel.getText().split(",")[1].trim().replace("}", ""));
+                    int contentOffset = (int) Double.parseDouble(readHelperLabel(CONTENT_OFFSET_LABEL).split(",")[1].trim().replace("}", ""));
                     return new Location(0, contentOffset);
                 } catch (NumberFormatException | ArrayIndexOutOfBoundsException ignored) {
                     logger.log(TraceLevel.Debug, eyesDriver.getTestId(), Stage.CHECK,  "Can not parse applitools_content_offset_label value");
@@ -176,7 +182,25 @@ public class IOSScrollPositionProvider extends AppiumScrollPositionProvider {
 
         driver.performTouchAction(scrollAction);
 
-        try { Thread.sleep(1000); } catch (InterruptedException ignored) {}
+        scrollIdleDetector.waitForIdle(createFirstVisibleChildFingerprint(), TOUCH_SCROLL_TIMEOUT);
+    }
+
+    /**
+     * Creates a fingerprint of the first visible child's position. The child is resolved only by the first poll, so
+     * the following polls cost a single {@code getRect} call each.
+     */
+    private ScrollIdleDetector.ScrollStateFingerprint createFirstVisibleChildFingerprint() {
+        return new ScrollIdleDetector.ScrollStateFingerprint() {
+            private WebElement child;
+
+            @Override
+            public Object get() {
+                if (child == null) {
+                    child = getCachedFirstVisibleChild();
+                }
+                return child.getRect();
+            }
+        };
     }
 
     @Override
@@ -258,14 +282,8 @@ public class IOSScrollPositionProvider extends AppiumScrollPositionProvider {
             GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e);
             contentSize = null;
 
-            /*
-             * To get more information about view hierarchy we printed page source to the logs
-             * and saving debug screenshot for current screen
-             */
-            String base64 = driver.getScreenshotAs(OutputType.BASE64);
-            BufferedImage image = ImageUtils.imageFromBase64(base64);
-
-            logger.log(TraceLevel.Debug, eyesDriver.getTestId(), Stage.CHECK, Pair.of("pageSource", driver.getPageSource()));
+            // To get more information about view hierarchy we print the page source to the logs, if allowed
+            scrollDiagnostics.reportScrollableViewNotFound();
         }
         return contentSize;
     }
@@ -396,11 +414,9 @@ public class IOSScrollPositionProvider extends AppiumScrollPositionProvider {
                 break;
             case "XCUIElementTypeCollectionView":
                 try {
-                    triggerHelperButton();
-
-                    WebElement contentInfo = driver.findElement(MobileBy.name("applitools_content_size_label"));
+                    String contentInfo = readHelperLabel(CONTENT_SIZE_LABEL);
                     try {
-                        scrollableOffset = Integer.parseInt(contentInfo.getText().split(",")[1].trim().replace("}", ""));
+                        scrollableOffset = Integer.parseInt(contentInfo.split(",")[1].trim().replace("}", ""));
                         logger.log(TraceLevel.Debug, eyesDriver.getTestId(), Stage.CHECK,  "Scrollable offset from Helper library: " + scrollableOffset);
                     } catch (NumberFormatException | ArrayIndexOutOfBoundsException ignored) {
                         logger.log(TraceLevel.Debug, eyesDriver.getTestId(), Stage.CHECK,  "Can not parse applitools_content_size_label value");
@@ -414,13 +430,41 @@ public class IOSScrollPositionProvider extends AppiumScrollPositionProvider {
     }
 
     public void triggerHelperButton() {
+        tapHelperButton();
+        try { Thread.sleep(500); } catch (InterruptedException ignored) {}
+    }
+
+    private void tapHelperButton() {
         WebElement trigger = driver.findElement(MobileBy.name("applitools_grab_scrollable_data_button"));
 
         TouchAction triggerAction = new TouchAction(driver);
         triggerAction.tap(new PointOption().withCoordinates(trigger.getLocation().x, trigger.getLocation().y)).waitAction(new WaitOptions().withDuration(Duration.ofMillis(1000)));
         triggerAction.release();
         driver.performTouchAction(triggerAction);
-        try { Thread.sleep(500); } catch (InterruptedException ignored) {}
+    }
+
+    /**
+     * Triggers the helper library and reads the given label as soon as the helper library updates it.
+     * If the value doesn't change (e.g., the offset is the same as in the previous reading), it is returned after
+     * a short timeout.
+     */
+    private String readHelperLabel(String labelName) {
+        List<WebElement> labels = driver.findElements(MobileBy.name(labelName));
+        if (labels.isEmpty()) {
+            // The label might appear only after the first trigger
+            triggerHelperButton();
+            return driver.findElement(MobileBy.name(labelName)).getText();
+        }
+
+        final WebElement label = labels.get(0);
+        String previousValue = label.getText();
+        tapHelperButton();
+        return (String) scrollIdleDetector.waitForChange(new ScrollIdleDetector.ScrollStateFingerprint() {
+            @Override
+            public Object get() {
+                return label.getText();
+            }
+        }, previousValue, HELPER_LABEL_TIMEOUT, HELPER_LABEL_POLL_INTERVAL);
     }
 
     @Override
@@ -0,0 +1,111 @@
+package com.applitools.eyes.appium;
+
+import com.applitools.eyes.Logger;
+import com.applitools.eyes.logging.Stage;
+import com.applitools.eyes.logging.TraceLevel;
+import com.applitools.utils.GeneralUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when to collect expensive diagnostics (the page source) after scroll failures.
+ * Diagnostics are collected only if the {@value #APPLITOOLS_DEBUG_SCROLL} environment variable is set to "true",
+ * at most once in {@link #MIN_INTERVAL} milliseconds, and are written to the log in the background.
+ */
+public class ScrollDiagnostics {
+
+    static final String APPLITOOLS_DEBUG_SCROLL = "APPLITOOLS_DEBUG_SCROLL";
+    static final long MIN_INTERVAL = 60000;
+
+    /**
+     * The source of the current time, which tests replace to check the rate limit.
+     */
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    // Shared by all the sessions in the process, so the page source is collected at most once a minute overall
+    private static final AtomicLong globalLastCollectionTime = new AtomicLong(0);
+
+    private static final ExecutorService logExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ScrollDiagnostics");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Logger logger;
+    private final EyesAppiumDriver driver;
+    private final boolean isEnabled;
+    private final Clock clock;
+    private final AtomicLong lastCollectionTime;
+
+    public ScrollDiagnostics(Logger logger, EyesAppiumDriver driver) {
+        this(logger, driver, "true".equalsIgnoreCase(GeneralUtils.getEnvString(APPLITOOLS_DEBUG_SCROLL)),
+                SYSTEM_CLOCK, globalLastCollectionTime);
+    }
+
+    ScrollDiagnostics(Logger logger, EyesAppiumDriver driver, boolean isEnabled, Clock clock,
+                      AtomicLong lastCollectionTime) {
+        this.logger = logger;
+        this.driver = driver;
+        this.isEnabled = isEnabled;
+        this.clock = clock;
+        this.lastCollectionTime = lastCollectionTime;
+    }
+
+    /**
+     * Collects the page source, if the policy allows it, to help find out why the scrollable view wasn't found.
+     * @return Whether diagnostics were collected.
+     */
+    public boolean reportScrollableViewNotFound() {
+        if (!shouldCollect()) {
+            logger.log(TraceLevel.Debug, driver.getTestId(), Stage.CHECK,
+                    Pair.of("message", "Skipped scroll diagnostics"),
+                    Pair.of("enabledBy", APPLITOOLS_DEBUG_SCROLL));
+            return false;
+        }
+
+        // The driver is only used on the calling thread, only the logging is done in the background
+        final String pageSource;
+        try {
+            pageSource = driver.getRemoteWebDriver().getPageSource();
+        } catch (WebDriverException e) {
+            GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e, driver.getTestId());
+            return false;
+        }
+
+        final String testId = driver.getTestId();
+        logExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                logger.log(TraceLevel.Debug, testId, Stage.CHECK, Pair.of("pageSource", pageSource));
+            }
+        });
+        return true;
+    }
+
+    boolean shouldCollect() {
+        if (!isEnabled) {
+            return false;
+        }
+
+        long now = clock.currentTimeMillis();
+        long lastTime = lastCollectionTime.get();
+        return now - lastTime >= MIN_INTERVAL && lastCollectionTime.compareAndSet(lastTime, now);
+    }
+}
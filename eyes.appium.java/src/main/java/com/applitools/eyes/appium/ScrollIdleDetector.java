@@ -0,0 +1,142 @@
+package com.applitools.eyes.appium;
+
+import com.applitools.eyes.Logger;
+import com.applitools.eyes.logging.Stage;
+import com.applitools.eyes.logging.TraceLevel;
+import com.applitools.utils.GeneralUtils;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Objects;
+
+/**
+ * Waits for a scroll to settle by polling a cheap fingerprint of the scroll state, instead of sleeping for a fixed
+ * time. The fixed times previously used serve as timeouts.
+ */
+public class ScrollIdleDetector {
+
+    /**
+     * A cheap representation of the current scroll state. Equal values mean the scroll state didn't change.
+     */
+    public interface ScrollStateFingerprint {
+        Object get();
+    }
+
+    static final int POLL_INTERVAL = 150;
+
+    // The number of consecutive polls in which the fingerprint must not change for the scroll to be considered idle
+    static final int STABLE_POLLS = 2;
+
+    private final Logger logger;
+    private final String testId;
+
+    public ScrollIdleDetector(Logger logger, String testId) {
+        this.logger = logger;
+        this.testId = testId;
+    }
+
+    /**
+     * Waits until the fingerprint stops changing. Used after actions which already started the scroll when they
+     * return (e.g., touch actions).
+     * @param fingerprint The scroll state fingerprint.
+     * @param timeout     The maximal time to wait in milliseconds.
+     * @return {@code true} if the scroll settled before the timeout.
+     */
+    public boolean waitForIdle(ScrollStateFingerprint fingerprint, int timeout) {
+        long start = System.currentTimeMillis();
+        Object lastState;
+        try {
+            lastState = fingerprint.get();
+        } catch (Exception e) {
+            return sleepRemaining(start, timeout, e);
+        }
+        return waitForStableState(fingerprint, lastState, start, timeout);
+    }
+
+    /**
+     * Waits until the fingerprint differs from the given state and then stops changing. Used after asynchronous
+     * commands, in which the scroll might start only after the command returns.
+     * @param fingerprint  The scroll state fingerprint.
+     * @param initialState The fingerprint value before the command was sent.
+     * @param timeout      The maximal time to wait in milliseconds.
+     * @return {@code true} if the scroll settled before the timeout.
+     */
+    public boolean waitForChangeAndIdle(ScrollStateFingerprint fingerprint, Object initialState, int timeout) {
+        long start = System.currentTimeMillis();
+        Object state = initialState;
+        try {
+            while (Objects.equals(state, initialState)) {
+                if (System.currentTimeMillis() - start >= timeout) {
+                    logIdleResult(false, start);
+                    return false;
+                }
+                GeneralUtils.sleep(POLL_INTERVAL);
+                state = fingerprint.get();
+            }
+        } catch (Exception e) {
+            return sleepRemaining(start, timeout, e);
+        }
+        return waitForStableState(fingerprint, state, start, timeout);
+    }
+
+    /**
+     * Polls the fingerprint until it differs from the given state. Unlike {@link #waitForChangeAndIdle}, returns as
+     * soon as a change is seen and doesn't wait for the state to settle. Exceptions thrown by the fingerprint are
+     * propagated to the caller.
+     * @param fingerprint  The state fingerprint.
+     * @param initialState The fingerprint value before the state was expected to change.
+     * @param timeout      The maximal time to wait in milliseconds.
+     * @param pollInterval The time between polls in milliseconds.
+     * @return The last fingerprint value, which equals {@code initialState} if the timeout passed without a change.
+     */
+    public Object waitForChange(ScrollStateFingerprint fingerprint, Object initialState, int timeout, int pollInterval) {
+        long start = System.currentTimeMillis();
+        Object state = fingerprint.get();
+        while (Objects.equals(state, initialState) && System.currentTimeMillis() - start < timeout) {
+            GeneralUtils.sleep(pollInterval);
+            state = fingerprint.get();
+        }
+        logger.log(TraceLevel.Debug, testId, Stage.CHECK,
+                Pair.of("stateChanged", !Objects.equals(state, initialState)),
+                Pair.of("waitTime", System.currentTimeMillis() - start));
+        return state;
+    }
+
+    private boolean waitForStableState(ScrollStateFingerprint fingerprint, Object lastState, long start, int timeout) {
+        int stablePolls = 0;
+        try {
+            while (System.currentTimeMillis() - start < timeout) {
+                GeneralUtils.sleep(POLL_INTERVAL);
+                Object state = fingerprint.get();
+                if (Objects.equals(state, lastState)) {
+                    if (++stablePolls >= STABLE_POLLS) {
+                        logIdleResult(true, start);
+                        return true;
+                    }
+                } else {
+                    stablePolls = 0;
+                    lastState = state;
+                }
+            }
+        } catch (Exception e) {
+            return sleepRemaining(start, timeout, e);
+        }
+        logIdleResult(false, start);
+        return false;
+    }
+
+    private boolean sleepRemaining(long start, int timeout, Exception e) {
+        // The fingerprint isn't available, so fall back to waiting the entire timeout
+        GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, e, testId);
+        long remaining = timeout - (System.currentTimeMillis() - start);
+        if (remaining > 0) {
+            GeneralUtils.sleep((int) remaining);
+        }
+        return false;
+    }
+
+    private void logIdleResult(boolean isIdle, long start) {
+        logger.log(TraceLevel.Debug, testId, Stage.CHECK,
+                Pair.of("scrollIdle", isIdle),
+                Pair.of("waitTime", System.currentTimeMillis() - start));
+    }
+}
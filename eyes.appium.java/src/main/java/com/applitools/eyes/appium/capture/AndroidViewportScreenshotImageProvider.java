@@ -3,11 +3,11 @@ package com.applitools.eyes.appium.capture;
 import com.applitools.eyes.appium.EyesAppiumDriver;
 import com.applitools.eyes.appium.EyesAppiumUtils;
 import com.applitools.eyes.selenium.wrappers.EyesWebDriver;
-import com.applitools.utils.ImageUtils;
 import org.openqa.selenium.OutputType;
 
 import java.awt.image.BufferedImage;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 public class AndroidViewportScreenshotImageProvider extends MobileImageProvider {
 
@@ -16,30 +16,16 @@ public class AndroidViewportScreenshotImageProvider extends MobileImageProvider
     }
 
     @Override
-    public BufferedImage getImage() {
-        BufferedImage screenshot = ImageUtils.imageFromBytes(driver.getScreenshotAs(OutputType.BYTES));
-        Map<String, Integer> systemBarHeights = EyesAppiumUtils.getSystemBarsHeights(driver);
-        if (!captureStatusBar) {
-            screenshot = cropTop(screenshot, systemBarHeights.get(EyesAppiumUtils.STATUS_BAR));
-        }
-        screenshot = cropBottom(screenshot, systemBarHeights.get(EyesAppiumUtils.NAVIGATION_BAR));
-
-        BufferedImage result = new BufferedImage(screenshot.getWidth(), screenshot.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
-        result.setData(screenshot.getData());
-        return result;
-    }
-
-    private BufferedImage cropTop(BufferedImage screenshot, Integer cropHeight) {
-        if (cropHeight == null || cropHeight <= 0 || cropHeight >= screenshot.getHeight()) {
-            return screenshot;
-        }
-        return screenshot.getSubimage(0, cropHeight, screenshot.getWidth(), screenshot.getHeight() - cropHeight);
-    }
-
-    private BufferedImage cropBottom(BufferedImage screenshot, Integer cropHeight) {
-        if (cropHeight == null || cropHeight <= 0 || cropHeight >= screenshot.getHeight()) {
-            return screenshot;
-        }
-        return screenshot.getSubimage(0, 0, screenshot.getWidth(), screenshot.getHeight() - cropHeight);
+    public Callable<BufferedImage> captureImage() {
+        final byte[] screenshotBytes = driver.getScreenshotAs(OutputType.BYTES);
+        final Map<String, Integer> systemBarHeights = EyesAppiumUtils.getSystemBarsHeights(driver);
+        final boolean captureStatusBar = this.captureStatusBar;
+        return new Callable<BufferedImage>() {
+            @Override
+            public BufferedImage call() {
+                Integer statusBarHeight = captureStatusBar ? null : systemBarHeights.get(EyesAppiumUtils.STATUS_BAR);
+                return decodeScreenshot(screenshotBytes, statusBarHeight, systemBarHeights.get(EyesAppiumUtils.NAVIGATION_BAR));
+            }
+        };
     }
 }
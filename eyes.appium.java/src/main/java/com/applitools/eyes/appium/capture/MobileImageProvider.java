@@ -1,7 +1,12 @@
 package com.applitools.eyes.appium.capture;
 
+import com.applitools.eyes.EyesException;
 import com.applitools.eyes.appium.EyesAppiumDriver;
 import com.applitools.eyes.capture.ImageProvider;
+import com.applitools.utils.ImageUtils;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.Callable;
 
 public abstract class MobileImageProvider implements ImageProvider {
 
@@ -14,6 +19,37 @@ public abstract class MobileImageProvider implements ImageProvider {
         this.driver = driver;
     }
 
+    /**
+     * Takes a screenshot without decoding it. Only the interaction with the device is done on the calling thread,
+     * so the returned task can be run on a worker thread while the device scrolls to the next position.
+     * @return A task which decodes the screenshot.
+     */
+    public abstract Callable<BufferedImage> captureImage();
+
+    @Override
+    public BufferedImage getImage() {
+        try {
+            return captureImage().call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EyesException("Failed decoding the screenshot", e);
+        }
+    }
+
+    /**
+     * Decodes raw screenshot bytes, leaving out the given number of rows at the top and at the bottom.
+     * See {@link ImageUtils#imageFromBytes(byte[], int, int)}.
+     * @param screenshotBytes The encoded screenshot.
+     * @param cropTop         The number of rows to leave out at the top, or {@code null}.
+     * @param cropBottom      The number of rows to leave out at the bottom, or {@code null}.
+     * @return The decoded image, of type {@link BufferedImage#TYPE_4BYTE_ABGR}.
+     */
+    protected static BufferedImage decodeScreenshot(byte[] screenshotBytes, Integer cropTop, Integer cropBottom) {
+        return ImageUtils.imageFromBytes(screenshotBytes, cropTop == null ? 0 : cropTop,
+                cropBottom == null ? 0 : cropBottom);
+    }
+
     public void setCaptureStatusBar(boolean captureStatusBar) {
         this.captureStatusBar = captureStatusBar;
         if (wasCapturedStatusBar == null) {
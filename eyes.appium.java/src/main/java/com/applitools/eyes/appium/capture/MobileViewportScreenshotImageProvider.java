@@ -2,10 +2,11 @@ package com.applitools.eyes.appium.capture;
 
 import com.applitools.eyes.appium.EyesAppiumDriver;
 import com.applitools.eyes.selenium.wrappers.EyesWebDriver;
-import com.applitools.utils.ImageUtils;
+import org.apache.commons.codec.binary.Base64;
 import org.openqa.selenium.OutputType;
 
 import java.awt.image.BufferedImage;
+import java.util.concurrent.Callable;
 
 /**
  * An image provider returning viewport screenshots for {@link io.appium.java_client.AppiumDriver}
@@ -17,13 +18,24 @@ public class MobileViewportScreenshotImageProvider extends MobileImageProvider {
     }
 
     @Override
-    public BufferedImage getImage() {
-        String screenshot64;
-        if (!captureStatusBar) {
-            screenshot64 = (String) driver.executeScript("mobile: viewportScreenshot");
-        } else {
-            screenshot64 = driver.getScreenshotAs(OutputType.BASE64);
+    public Callable<BufferedImage> captureImage() {
+        if (captureStatusBar) {
+            final byte[] screenshotBytes = driver.getScreenshotAs(OutputType.BYTES);
+            return new Callable<BufferedImage>() {
+                @Override
+                public BufferedImage call() {
+                    return decodeScreenshot(screenshotBytes, null, null);
+                }
+            };
         }
-        return ImageUtils.imageFromBase64(screenshot64);
+
+        // The viewport screenshot is only available as a base64 string
+        final String screenshot64 = (String) driver.executeScript("mobile: viewportScreenshot");
+        return new Callable<BufferedImage>() {
+            @Override
+            public BufferedImage call() {
+                return decodeScreenshot(Base64.decodeBase64(screenshot64), null, null);
+            }
+        };
     }
 }
@@ -2,20 +2,36 @@ package com.applitools.eyes.appium.locators;
 
 import com.applitools.connectivity.ServerConnector;
 import com.applitools.eyes.Logger;
+import com.applitools.eyes.RectangleSize;
 import com.applitools.eyes.Region;
 import com.applitools.eyes.appium.EyesAppiumDriver;
 import com.applitools.eyes.appium.capture.MobileScreenshotProvider;
 import com.applitools.eyes.debug.DebugScreenshotsProvider;
+import com.applitools.eyes.debug.NullDebugScreenshotProvider;
 import com.applitools.eyes.locators.BaseVisualLocatorsProvider;
 import com.applitools.eyes.locators.VisualLocatorSettings;
+import com.applitools.eyes.logging.Stage;
+import com.applitools.utils.GeneralUtils;
+import com.applitools.utils.ImageUtils;
+import com.applitools.utils.PngHeader;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openqa.selenium.OutputType;
 
+import java.awt.image.BufferedImage;
 import java.util.List;
 import java.util.Map;
 
 public abstract class MobileVisualLocatorProvider extends BaseVisualLocatorsProvider {
 
+    // The maximal time to reuse an uploaded screenshot of an unchanged screen
+    private static final int SCREENSHOT_URL_TTL = 60000;
+
     protected EyesAppiumDriver driver;
 
+    private String lastScreenshotHash;
+    private String lastScreenshotUrl;
+    private long lastScreenshotUploadTime;
+
     MobileVisualLocatorProvider(Logger logger, String testId, EyesAppiumDriver driver, ServerConnector serverConnector,
                                 double devicePixelRatio, String appName, DebugScreenshotsProvider debugScreenshotsProvider) {
         super(logger, testId, serverConnector, new MobileScreenshotProvider(driver, devicePixelRatio), devicePixelRatio, appName, debugScreenshotsProvider);
@@ -27,5 +43,46 @@ public abstract class MobileVisualLocatorProvider extends BaseVisualLocatorsProv
         return adjustVisualLocators(super.getLocators(visualLocatorSettings));
     }
 
+    /**
+     * Consecutive lookups on an unchanged screen share a single upload. The screenshot is still captured, since
+     * it is the only way to know that the screen didn't change, but it is decoded, scaled and uploaded only if it
+     * differs from the previous one.
+     */
+    @Override
+    protected String getViewportScreenshotUrl(VisualLocatorSettings visualLocatorSettings) {
+        byte[] screenshotBytes = driver.getScreenshotAs(OutputType.BYTES);
+        String screenshotHash = GeneralUtils.getSha256hash(screenshotBytes);
+        if (screenshotHash.equals(lastScreenshotHash) &&
+                System.currentTimeMillis() - lastScreenshotUploadTime < SCREENSHOT_URL_TTL) {
+            logger.log(testId, Stage.LOCATE,
+                    Pair.of("locatorNames", visualLocatorSettings.getNames()),
+                    Pair.of("reusedScreenshotUrl", lastScreenshotUrl));
+            return lastScreenshotUrl;
+        }
+
+        // A screenshot which isn't scaled is uploaded as it is, without decoding it, if any decoder would decode it
+        // to the same pixels.
+        PngHeader header = devicePixelRatio == 1 && debugScreenshotsProvider instanceof NullDebugScreenshotProvider
+                ? PngHeader.read(screenshotBytes, true) : null;
+        if (header != null && header.isPlainTrueColor()) {
+            logger.log(testId, Stage.LOCATE,
+                    Pair.of("locatorNames", visualLocatorSettings.getNames()),
+                    Pair.of("devicePixelRatio", devicePixelRatio),
+                    Pair.of("scaledImageSize", new RectangleSize(header.getWidth(), header.getHeight())));
+            lastScreenshotUrl = uploadViewportScreenshot(screenshotBytes);
+        } else {
+            BufferedImage viewPortScreenshot = ImageUtils.imageFromBytes(screenshotBytes);
+            viewPortScreenshot = ImageUtils.scaleImage(viewPortScreenshot, 1 / devicePixelRatio, true);
+            logger.log(testId, Stage.LOCATE,
+                    Pair.of("locatorNames", visualLocatorSettings.getNames()),
+                    Pair.of("devicePixelRatio", devicePixelRatio),
+                    Pair.of("scaledImageSize", new RectangleSize(viewPortScreenshot.getWidth(), viewPortScreenshot.getHeight())));
+            lastScreenshotUrl = uploadViewportScreenshot(viewPortScreenshot);
+        }
+        lastScreenshotHash = screenshotHash;
+        lastScreenshotUploadTime = System.currentTimeMillis();
+        return lastScreenshotUrl;
+    }
+
     protected abstract Map<String, List<Region>> adjustVisualLocators(Map<String, List<Region>> map);
 }
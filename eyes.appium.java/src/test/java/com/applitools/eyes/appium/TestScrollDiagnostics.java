@@ -0,0 +1,65 @@
+package com.applitools.eyes.appium;
+
+import com.applitools.eyes.Logger;
+import com.applitools.eyes.utils.ReportingTestSuite;
+import io.appium.java_client.AppiumDriver;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
+
+public class TestScrollDiagnostics extends ReportingTestSuite {
+
+    private static class FakeClock implements ScrollDiagnostics.Clock {
+        long time = 1000000;
+
+        @Override
+        public long currentTimeMillis() {
+            return time;
+        }
+    }
+
+    @BeforeClass
+    public void beforeClass() {
+        super.setGroupName("appium");
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        AppiumDriver remoteDriver = mock(AppiumDriver.class);
+        EyesAppiumDriver driver = mock(EyesAppiumDriver.class);
+        when(driver.getRemoteWebDriver()).thenReturn(remoteDriver);
+
+        ScrollDiagnostics diagnostics = new ScrollDiagnostics(new Logger(), driver);
+        Assert.assertFalse(diagnostics.reportScrollableViewNotFound());
+        verify(remoteDriver, never()).getPageSource();
+    }
+
+    @Test
+    public void testCollectedOncePerInterval() {
+        AppiumDriver remoteDriver = mock(AppiumDriver.class);
+        when(remoteDriver.getPageSource()).thenReturn("<hierarchy/>");
+        EyesAppiumDriver driver = mock(EyesAppiumDriver.class);
+        when(driver.getRemoteWebDriver()).thenReturn(remoteDriver);
+
+        FakeClock clock = new FakeClock();
+        AtomicLong lastCollectionTime = new AtomicLong(0);
+        ScrollDiagnostics diagnostics = new ScrollDiagnostics(new Logger(), driver, true, clock, lastCollectionTime);
+        Assert.assertTrue(diagnostics.reportScrollableViewNotFound());
+        verify(remoteDriver, times(1)).getPageSource();
+
+        // Failures within the interval don't collect the page source again, even in other sessions
+        clock.time += ScrollDiagnostics.MIN_INTERVAL - 1;
+        Assert.assertFalse(diagnostics.reportScrollableViewNotFound());
+        ScrollDiagnostics otherDiagnostics = new ScrollDiagnostics(new Logger(), driver, true, clock, lastCollectionTime);
+        Assert.assertFalse(otherDiagnostics.reportScrollableViewNotFound());
+        verify(remoteDriver, times(1)).getPageSource();
+
+        clock.time += 1;
+        Assert.assertTrue(otherDiagnostics.reportScrollableViewNotFound());
+        verify(remoteDriver, times(2)).getPageSource();
+    }
+}
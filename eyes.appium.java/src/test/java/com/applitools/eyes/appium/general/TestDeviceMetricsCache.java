@@ -0,0 +1,63 @@
+package com.applitools.eyes.appium.general;
+
+import com.applitools.eyes.appium.DeviceMetricsCache;
+import com.applitools.eyes.appium.EyesAppiumUtils;
+import com.applitools.eyes.utils.ReportingTestSuite;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestDeviceMetricsCache extends ReportingTestSuite {
+
+    @BeforeClass
+    public void beforeClass() {
+        super.setGroupName("appium");
+    }
+
+    @Test
+    public void testEntryIsValidatedByFingerprint() throws IOException {
+        File file = File.createTempFile("device-metrics", ".json");
+        file.deleteOnExit();
+        Map<String, Integer> systemBarsHeights = new HashMap<>();
+        systemBarsHeights.put(EyesAppiumUtils.STATUS_BAR, 63);
+        systemBarsHeights.put(EyesAppiumUtils.NAVIGATION_BAR, 126);
+
+        new DeviceMetricsCache(file).putSystemBarsHeights("Pixel 3|ANDROID|10|portrait", "1080x2160|63", systemBarsHeights);
+
+        // A new instance, as in a new session, reads the entry from the file
+        DeviceMetricsCache cache = new DeviceMetricsCache(file);
+        Assert.assertEquals(cache.getSystemBarsHeights("Pixel 3|ANDROID|10|portrait", "1080x2160|63"), systemBarsHeights);
+        Assert.assertNull(cache.getSystemBarsHeights("Pixel 3|ANDROID|10|portrait", "1080x2160|80"));
+        Assert.assertNull(cache.getSystemBarsHeights("Pixel 3|ANDROID|10|landscape", "1080x2160|63"));
+    }
+
+    @Test
+    public void testCorruptedFileIsIgnored() throws IOException {
+        File file = File.createTempFile("device-metrics", ".json");
+        file.deleteOnExit();
+        DeviceMetricsCache cache = new DeviceMetricsCache(file);
+        Assert.assertNull(cache.getSystemBarsHeights("key", "fingerprint"));
+
+        Map<String, Integer> systemBarsHeights = new HashMap<>();
+        systemBarsHeights.put(EyesAppiumUtils.STATUS_BAR, 20);
+        cache.putSystemBarsHeights("key", "fingerprint", systemBarsHeights);
+        Assert.assertEquals(cache.getSystemBarsHeights("key", "fingerprint"), systemBarsHeights);
+    }
+
+    @Test
+    public void testHiddenBarIsCached() throws IOException {
+        File file = File.createTempFile("device-metrics", ".json");
+        file.deleteOnExit();
+        Map<String, Integer> systemBarsHeights = new HashMap<>();
+        systemBarsHeights.put(EyesAppiumUtils.STATUS_BAR, 63);
+        systemBarsHeights.put(EyesAppiumUtils.NAVIGATION_BAR, null);
+
+        new DeviceMetricsCache(file).putSystemBarsHeights("key", "fingerprint", systemBarsHeights);
+        Assert.assertEquals(new DeviceMetricsCache(file).getSystemBarsHeights("key", "fingerprint"), systemBarsHeights);
+    }
+}
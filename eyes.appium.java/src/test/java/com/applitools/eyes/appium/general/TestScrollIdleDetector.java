@@ -0,0 +1,74 @@
+package com.applitools.eyes.appium.general;
+
+import com.applitools.eyes.Logger;
+import com.applitools.eyes.appium.ScrollIdleDetector;
+import com.applitools.eyes.utils.ReportingTestSuite;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestScrollIdleDetector extends ReportingTestSuite {
+
+    @BeforeClass
+    public void beforeClass() {
+        super.setGroupName("appium");
+    }
+
+    @Test
+    public void testIdleBeforeTimeout() {
+        final AtomicInteger polls = new AtomicInteger();
+        ScrollIdleDetector detector = new ScrollIdleDetector(new Logger(), "test");
+        long start = System.currentTimeMillis();
+        boolean isIdle = detector.waitForIdle(new ScrollIdleDetector.ScrollStateFingerprint() {
+            @Override
+            public Object get() {
+                // The scroll moves for the first 3 polls and then stops
+                return Math.min(polls.incrementAndGet(), 3);
+            }
+        }, 5000);
+        Assert.assertTrue(isIdle);
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void testTimeoutWhenStateDoesNotChange() {
+        ScrollIdleDetector detector = new ScrollIdleDetector(new Logger(), "test");
+        boolean isIdle = detector.waitForChangeAndIdle(new ScrollIdleDetector.ScrollStateFingerprint() {
+            @Override
+            public Object get() {
+                return "initial";
+            }
+        }, "initial", 500);
+        Assert.assertFalse(isIdle);
+    }
+
+    @Test
+    public void testTimeoutWhenStateKeepsChanging() {
+        final AtomicInteger polls = new AtomicInteger();
+        ScrollIdleDetector detector = new ScrollIdleDetector(new Logger(), "test");
+        boolean isIdle = detector.waitForIdle(new ScrollIdleDetector.ScrollStateFingerprint() {
+            @Override
+            public Object get() {
+                return polls.incrementAndGet();
+            }
+        }, 500);
+        Assert.assertFalse(isIdle);
+    }
+
+    @Test
+    public void testWaitForChangeReturnsNewState() {
+        final AtomicInteger polls = new AtomicInteger();
+        ScrollIdleDetector detector = new ScrollIdleDetector(new Logger(), "test");
+        Object state = detector.waitForChange(new ScrollIdleDetector.ScrollStateFingerprint() {
+            @Override
+            public Object get() {
+                // The label is updated after the second poll
+                return polls.incrementAndGet() > 2 ? "{0, 100}" : "{0, 0}";
+            }
+        }, "{0, 0}", 5000, 10);
+        Assert.assertEquals(state, "{0, 100}");
+        Assert.assertEquals(polls.get(), 3);
+    }
+}
@@ -0,0 +1,73 @@
+package com.applitools.eyes.appium.general;
+
+import com.applitools.connectivity.ServerConnector;
+import com.applitools.eyes.Logger;
+import com.applitools.eyes.Region;
+import com.applitools.eyes.TaskListener;
+import com.applitools.eyes.appium.EyesAppiumDriver;
+import com.applitools.eyes.appium.locators.AndroidVisualLocatorProvider;
+import com.applitools.eyes.debug.NullDebugScreenshotProvider;
+import com.applitools.eyes.locators.VisualLocator;
+import com.applitools.eyes.locators.VisualLocatorsData;
+import com.applitools.eyes.utils.ReportingTestSuite;
+import com.applitools.utils.ImageUtils;
+import org.mockito.ArgumentMatchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openqa.selenium.OutputType;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+public class TestVisualLocatorScreenshotReuse extends ReportingTestSuite {
+
+    @BeforeClass
+    public void beforeClass() {
+        super.setGroupName("appium");
+    }
+
+    @Test
+    public void testUnchangedScreenIsUploadedOnce() {
+        byte[] firstScreen = ImageUtils.encodeAsPng(new BufferedImage(20, 40, BufferedImage.TYPE_INT_RGB));
+        byte[] secondScreen = ImageUtils.encodeAsPng(new BufferedImage(20, 30, BufferedImage.TYPE_INT_RGB));
+
+        EyesAppiumDriver driver = mock(EyesAppiumDriver.class);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(firstScreen, firstScreen, secondScreen);
+
+        ServerConnector serverConnector = mock(ServerConnector.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                TaskListener<String> listener = invocation.getArgument(0);
+                listener.onComplete("https://images/screenshot.png");
+                return null;
+            }
+        }).when(serverConnector).uploadImage(ArgumentMatchers.<TaskListener<String>>any(), any(byte[].class));
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                TaskListener<Map<String, List<Region>>> listener = invocation.getArgument(0);
+                listener.onComplete(new HashMap<String, List<Region>>());
+                return null;
+            }
+        }).when(serverConnector).postLocators(ArgumentMatchers.<TaskListener<Map<String, List<Region>>>>any(),
+                any(VisualLocatorsData.class));
+
+        AndroidVisualLocatorProvider provider = new AndroidVisualLocatorProvider(new Logger(), "test", driver,
+                serverConnector, 1, "app", new NullDebugScreenshotProvider());
+        provider.getLocators(VisualLocator.name("first"));
+        provider.getLocators(VisualLocator.name("second"));
+        verify(serverConnector, times(1)).uploadImage(ArgumentMatchers.<TaskListener<String>>any(), any(byte[].class));
+
+        provider.getLocators(VisualLocator.name("third"));
+        verify(serverConnector, times(2)).uploadImage(ArgumentMatchers.<TaskListener<String>>any(), any(byte[].class));
+        verify(serverConnector, times(3)).postLocators(ArgumentMatchers.<TaskListener<Map<String, List<Region>>>>any(),
+                any(VisualLocatorsData.class));
+    }
+}
@@ -22,9 +22,13 @@ import com.applitools.eyes.triggers.MouseAction;
 import com.applitools.utils.ArgumentGuard;
 import com.applitools.utils.ClassVersionGetter;
 import com.applitools.utils.ImageUtils;
+import com.applitools.utils.PngHeader;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Collections;
 
 public class Eyes extends EyesBase implements IConfiguration {
@@ -178,7 +182,13 @@ public class Eyes extends EyesBase implements IConfiguration {
      * @return Whether or not the image matched the baseline.
      */
     public boolean checkImage(String path, String tag, boolean ignoreMismatch) {
-        return checkImage(ImageUtils.imageFromFile(path), tag, ignoreMismatch);
+        byte[] image;
+        try {
+            image = Files.readAllBytes(Paths.get(path));
+        } catch (IOException e) {
+            throw new EyesException("Failed to load the image bytes from " + path, e);
+        }
+        return checkImage(image, tag, ignoreMismatch);
     }
 
     /**
@@ -205,12 +215,25 @@ public class Eyes extends EyesBase implements IConfiguration {
     /**
      * Matches the input image with the next expected image.
      * See {@link #checkImage(BufferedImage, String, boolean)}.
+     * <p>
+     * A PNG image with plain 8 bit RGB(A) pixels is uploaded as it is,
+     * unless it is cut, rather than being encoded again.
      * @param image The raw png bytes of the image to perform visual validation for.
      * @param tag   An optional tag to be associated with the validation checkpoint.
      * @return Whether or not the image matched the baseline.
      */
     public boolean checkImage(byte[] image, String tag, boolean ignoreMismatch) {
-        return checkImage(ImageUtils.imageFromBytes(image), tag, ignoreMismatch);
+        if (getIsDisabled()) {
+            return false;
+        }
+        ArgumentGuard.notNull(image, "image cannot be null!");
+
+        // The header is read without decoding the image, to know whether the
+        // bytes can be forwarded.
+        PngHeader header = PngHeader.read(image, true);
+        byte[] encodedImage = header != null && header.isPlainTrueColor() ? image : null;
+        return checkImage_(RegionProvider.NULL_INSTANCE, ImageUtils.imageFromBytes(image), encodedImage,
+                tag, new CheckSettings(USE_DEFAULT_TIMEOUT));
     }
 
     /**
@@ -355,6 +378,22 @@ public class Eyes extends EyesBase implements IConfiguration {
                                 BufferedImage image,
                                 String tag,
                                 ICheckSettings checkSettings) {
+        return checkImage_(regionProvider, image, null, tag, checkSettings);
+    }
+
+    /**
+     * @param regionProvider The region for which verification will be performed.
+     * @param image          The image to perform visual validation for.
+     * @param encodedImage   The image encoded as a PNG, to upload as it is if the image isn't cut, or {@code null}.
+     * @param tag            An optional tag to be associated with the validation checkpoint.
+     * @param checkSettings  The settings to use when checking the image.
+     * @return True if the image matched the expected output, false otherwise.
+     */
+    private boolean checkImage_(RegionProvider regionProvider,
+                                BufferedImage image,
+                                byte[] encodedImage,
+                                String tag,
+                                ICheckSettings checkSettings) {
         logger.log(TraceLevel.Info, Collections.singleton(getTestId()), Stage.CHECK, Type.CALLED,
                 Pair.of("configuration", getConfiguration()),
                 Pair.of("checkSettings", checkSettings));
@@ -373,10 +412,13 @@ public class Eyes extends EyesBase implements IConfiguration {
         if (!(cutProvider instanceof NullCutProvider)) {
             image = cutProvider.cut(image);
             debugScreenshotsProvider.save(image, "cut");
+            // The encoded image no longer matches the pixels
+            encodedImage = null;
         }
 
         // Set the screenshot to be verified.
         screenshot = new EyesImagesScreenshot(logger, image);
+        screenshot.setEncodedImage(encodedImage);
 
         // Set the title to be linked to the screenshot.
         title = (tag != null) ? tag : "";
@@ -1,19 +1,37 @@
 package com.applitools.eyes;
 
+import com.applitools.eyes.logging.Stage;
+import com.applitools.eyes.logging.Type;
+import com.applitools.utils.GeneralUtils;
 import com.applitools.utils.ImageUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * An application output (title, image, etc).
  */
 public class AppOutput {
 
+    /**
+     * The maximal time to wait for a pending DOM upload when the match data is sent.
+     */
+    public static final int DOM_UPLOAD_TIMEOUT_SECONDS = 120;
+
     /**
      * The title of the screen of the application being captured.
      */
     private final String title;
-    private final String domUrl;
+    private String domUrl;
+
+    @JsonIgnore
+    private Future<String> domUrlFuture;
+    @JsonIgnore
+    private Logger logger;
     private String screenshotUrl;
 
     @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -40,7 +58,13 @@ public class AppOutput {
         this.screenshotUrl = screenshotUrl;
         this.location = location;
         this.screenshot = screenshot;
-        this.screenshotBytes = screenshot == null ? null : ImageUtils.encodeAsPng(screenshot.getImage());
+        if (screenshot == null) {
+            this.screenshotBytes = null;
+        } else if (screenshot.getEncodedImage() != null) {
+            this.screenshotBytes = screenshot.getEncodedImage();
+        } else {
+            this.screenshotBytes = ImageUtils.encodeAsPng(screenshot.getImage());
+        }
     }
 
     public AppOutput(String title, EyesScreenshot screenshot, String domUrl, String screenshotUrl, Location location, RectangleSize viewport) {
@@ -56,10 +80,42 @@ public class AppOutput {
         return screenshotBytes;
     }
 
+    /**
+     * Resolves a pending DOM upload, waiting for it at most {@link #DOM_UPLOAD_TIMEOUT_SECONDS}. If the upload fails
+     * or doesn't complete in time, the match goes on without a DOM url.
+     */
     public String getDomUrl() {
+        if (domUrl == null && domUrlFuture != null) {
+            try {
+                domUrl = domUrlFuture.get(DOM_UPLOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logDomUploadFailure(e);
+            } catch (ExecutionException | TimeoutException e) {
+                domUrlFuture.cancel(true);
+                logDomUploadFailure(e);
+            } finally {
+                domUrlFuture = null;
+            }
+        }
         return domUrl;
     }
 
+    /**
+     * @param domUrlFuture A pending upload of a DOM snapshot, resolved only when the DOM url is required.
+     * @param logger       The logger to report a failed upload to, or {@code null}.
+     */
+    public void setDomUrlFuture(Future<String> domUrlFuture, Logger logger) {
+        this.domUrlFuture = domUrlFuture;
+        this.logger = logger;
+    }
+
+    private void logDomUploadFailure(Exception e) {
+        if (logger != null) {
+            GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, Type.DOM_SCRIPT, e);
+        }
+    }
+
     public String getScreenshotUrl() {
         return screenshotUrl;
     }
@@ -36,9 +36,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Applitools Eyes Base for Java API .
@@ -47,6 +49,16 @@ public abstract class EyesBase implements IEyesBase {
 
     protected static final int USE_DEFAULT_TIMEOUT = -1;
 
+    // Compresses and uploads captured DOMs in the background, so the upload overlaps with the match
+    private static final ExecutorService domUploadExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "DomUpload");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     private boolean shouldMatchWindowRunOnceOnTimeout;
 
     private MatchWindowTask matchWindowTask;
@@ -829,6 +841,34 @@ public abstract class EyesBase implements IEyesBase {
         return domUrl;
     }
 
+    /**
+     * Captures the DOM on the calling thread, and compresses and uploads it in the background.
+     * @return A future of the dom url, which resolves to {@code null} if the capture or the upload failed.
+     */
+    protected Future<String> tryCaptureAndPostDomAsync() {
+        String domJson = null;
+        try {
+            domJson = tryCaptureDom();
+        } catch (Exception ex) {
+            GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, Type.DOM_SCRIPT, ex, getTestId());
+        }
+
+        final String capturedDomJson = domJson;
+        return domUploadExecutor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                String domUrl = null;
+                try {
+                    domUrl = tryPostDomCapture(capturedDomJson);
+                    logger.log(getTestId(), Stage.CHECK, Type.DOM_SCRIPT, Pair.of("domUrl", domUrl));
+                } catch (Exception ex) {
+                    GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, Type.DOM_SCRIPT, ex, getTestId());
+                }
+                return domUrl;
+            }
+        });
+    }
+
     protected boolean shouldCaptureDom(Boolean sendDomFromCheckSettings) {
         boolean sendDomFromConfig = getConfigurationInstance().isSendDom() == null || getConfigurationInstance().isSendDom();
         return (sendDomFromCheckSettings != null && sendDomFromCheckSettings) || (sendDomFromCheckSettings == null && sendDomFromConfig);
@@ -841,9 +881,10 @@ public abstract class EyesBase implements IEyesBase {
         return validationInfo;
     }
 
-    private String tryPostDomCapture(String domJson) {
+    private String tryPostDomCapture(String domJson) throws IOException {
         if (domJson != null) {
-            byte[] resultStream = GeneralUtils.getGzipByteArrayOutputStream(domJson);
+            // Encodes and compresses the DOM in a single pass, without an intermediate copy of its uncompressed bytes
+            byte[] resultStream = GzipUtils.gzip(domJson);
             SyncTaskListener<String> listener = new SyncTaskListener<>(logger, String.format("tryUploadData %s", runningSession));
             serverConnector.uploadData(listener, resultStream, "application/octet-stream", "application/json");
             return listener.get();
@@ -1181,8 +1222,10 @@ public abstract class EyesBase implements IEyesBase {
         // Getting the screenshot (abstract function implemented by each SDK).
         EyesScreenshot screenshot = getScreenshot(region, checkSettingsInternal);
         String domUrl = null;
+        Future<String> domUrlFuture = null;
         if (screenshot != null) {
             domUrl = screenshot.domUrl;
+            domUrlFuture = screenshot.domUrlFuture;
         }
 
         String title = getTitle();
@@ -1190,7 +1233,11 @@ public abstract class EyesBase implements IEyesBase {
         if (screenshot != null && screenshot.getOriginalLocation() != null) {
             location = screenshot.getOriginalLocation();
         }
-        return new AppOutput(title, screenshot, domUrl, null, location);
+        AppOutput appOutput = new AppOutput(title, screenshot, domUrl, null, location);
+        if (domUrl == null) {
+            appOutput.setDomUrlFuture(domUrlFuture, logger);
+        }
+        return appOutput;
     }
 
     public Boolean isSendDom() {
@@ -6,6 +6,7 @@ package com.applitools.eyes;
 import com.applitools.utils.ArgumentGuard;
 
 import java.awt.image.BufferedImage;
+import java.util.concurrent.Future;
 
 /**
  * Base class for handling screenshots.
@@ -16,6 +17,8 @@ public abstract class EyesScreenshot {
     protected final Logger logger;
 
     protected String domUrl;
+    protected Future<String> domUrlFuture;
+    protected byte[] encodedImage;
 
     public EyesScreenshot(Logger logger, BufferedImage image) {
         ArgumentGuard.notNull(logger, "logger");
@@ -49,6 +52,42 @@ public abstract class EyesScreenshot {
         this.domUrl = domUrl;
     }
 
+    /**
+     * Gets the pending dom upload, if the dom is being uploaded in the background.
+     *
+     * @return the dom url future or {@code null}
+     */
+    public Future<String> getDomUrlFuture() {
+        return domUrlFuture;
+    }
+
+    /**
+     * Sets a pending dom upload, which will be resolved only when the match data is sent.
+     *
+     * @param domUrlFuture the dom url future
+     */
+    public void setDomUrlFuture(Future<String> domUrlFuture) {
+        this.domUrlFuture = domUrlFuture;
+    }
+
+    /**
+     * Gets the image encoded as a PNG, if it was already available when the screenshot was created.
+     *
+     * @return the encoded image or {@code null}
+     */
+    public byte[] getEncodedImage() {
+        return encodedImage;
+    }
+
+    /**
+     * Sets the image encoded as a PNG, which is then uploaded as it is instead of encoding the image again.
+     *
+     * @param encodedImage a PNG of exactly the pixels of the screenshot's image
+     */
+    public void setEncodedImage(byte[] encodedImage) {
+        this.encodedImage = encodedImage;
+    }
+
     /**
      * Returns a part of the screenshot based on the given region.
      * @param region          The region for which we should get the sub screenshot.
@@ -103,6 +103,34 @@ public class ClassicRunner extends EyesRunner {
         return matchListener.get();
     }
 
+    /**
+     * Uploads the screenshots of several checkpoints concurrently, so their matches can be performed one after the
+     * other without waiting for each upload. Screenshots which failed uploading are uploaded again by {@link #check}.
+     */
+    public void uploadImages(final String testId, List<MatchWindowData> matchWindowDataList) {
+        List<SyncTaskListener<Boolean>> listeners = new ArrayList<>();
+        for (MatchWindowData matchWindowData : matchWindowDataList) {
+            final SyncTaskListener<Boolean> listener = new SyncTaskListener<>(logger, String.format("uploadImage %s", matchWindowData.getRunningSession()));
+            checkService.tryUploadImage(testId, matchWindowData, new ServiceTaskListener<Void>() {
+                @Override
+                public void onComplete(Void taskResponse) {
+                    listener.onComplete(true);
+                }
+
+                @Override
+                public void onFail(Throwable t) {
+                    GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, Type.UPLOAD_COMPLETE, t, testId);
+                    listener.onFail();
+                }
+            });
+            listeners.add(listener);
+        }
+
+        for (SyncTaskListener<Boolean> listener : listeners) {
+            listener.get();
+        }
+    }
+
     public TestResults close(final String testId, SessionStopInfo sessionStopInfo) {
         final SyncTaskListener<TestResults> listener = new SyncTaskListener<>(logger, String.format("stop session %s. isAborted: %b", sessionStopInfo.getRunningSession(), sessionStopInfo.isAborted()));
         closeService.operate(testId, sessionStopInfo, new ServiceTaskListener<TestResults>() {
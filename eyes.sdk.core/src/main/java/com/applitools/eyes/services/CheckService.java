@@ -5,20 +5,44 @@ import com.applitools.eyes.*;
 import com.applitools.eyes.logging.Stage;
 import com.applitools.eyes.logging.TraceLevel;
 import com.applitools.eyes.logging.Type;
+import com.applitools.utils.GeneralUtils;
+import com.applitools.utils.ImageDeltaCompressor;
+import com.applitools.utils.ImageUtils;
+import com.applitools.utils.PngHeader;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.util.*;
+import java.util.zip.Deflater;
 
 public class CheckService extends EyesService<MatchWindowData, MatchResult> {
 
+    static final String APPLITOOLS_DELTA_UPLOADS = "APPLITOOLS_DELTA_UPLOADS";
+    private static final String DELTA_CONTENT_TYPE = "application/octet-stream";
+
     // Queue for tests that finished uploading and waiting for match window
     private final List<Pair<String, MatchWindowData>> matchWindowQueue = Collections.synchronizedList(new ArrayList<Pair<String, MatchWindowData>>());
 
     private final Set<String> inUploadProcess = Collections.synchronizedSet(new HashSet<String>());
     private final Set<String> inMatchWindowProcess = Collections.synchronizedSet(new HashSet<String>());
 
+    // The last screenshot uploaded in each running session, which the next screenshot of the session is compressed against.
+    // Only the PNG is kept, and it is decoded again once the next screenshot consumes it.
+    private final Map<RunningSession, UploadedImage> lastUploadedImages = Collections.synchronizedMap(new WeakHashMap<RunningSession, UploadedImage>());
+    private final boolean isDeltaUploadEnabled;
+
     public CheckService(Logger logger, ServerConnector serverConnector) {
+        this(logger, serverConnector, "true".equalsIgnoreCase(GeneralUtils.getEnvString(APPLITOOLS_DELTA_UPLOADS)));
+    }
+
+    /**
+     * @param isDeltaUploadEnabled Whether screenshots are uploaded as deltas against the previous screenshot of the
+     *                             session, when the delta is smaller than the PNG.
+     */
+    CheckService(Logger logger, ServerConnector serverConnector, boolean isDeltaUploadEnabled) {
         super(logger, serverConnector);
+        this.isDeltaUploadEnabled = isDeltaUploadEnabled;
     }
 
     @Override
@@ -71,6 +95,11 @@ public class CheckService extends EyesService<MatchWindowData, MatchResult> {
             return;
         }
 
+        final RunningSession runningSession = data.getRunningSession();
+        final BufferedImage image = isDeltaUploadEnabled && runningSession != null && appOutput.getScreenshot() != null
+                ? appOutput.getScreenshot().getImage() : null;
+        final byte[] screenshotBytes = appOutput.getScreenshotBytes();
+
         // Getting the screenshot bytes
         TaskListener<String> uploadListener = new TaskListener<String>() {
             @Override
@@ -82,6 +111,9 @@ public class CheckService extends EyesService<MatchWindowData, MatchResult> {
 
                 logger.log(TraceLevel.Info, Collections.singleton(testId), Stage.CHECK, Type.UPLOAD_COMPLETE, Pair.of("url", s));
                 appOutput.setScreenshotUrl(s);
+                if (image != null) {
+                    lastUploadedImages.put(runningSession, new UploadedImage(s, screenshotBytes));
+                }
                 taskListener.onComplete(null);
             }
 
@@ -94,12 +126,53 @@ public class CheckService extends EyesService<MatchWindowData, MatchResult> {
 
         try {
             logger.log(TraceLevel.Info, Collections.singleton(testId), Stage.CHECK, Type.UPLOAD_START, Pair.of("matchWindowData", matchWindowQueue));
-            ((ServerConnector) serverConnector).uploadImage(uploadListener, appOutput.getScreenshotBytes());
+            byte[] delta = image == null ? null : compressAgainstLastUpload(testId, runningSession, image, screenshotBytes);
+            if (delta != null) {
+                ((ServerConnector) serverConnector).uploadData(uploadListener, delta, DELTA_CONTENT_TYPE, DELTA_CONTENT_TYPE);
+            } else {
+                ((ServerConnector) serverConnector).uploadImage(uploadListener, screenshotBytes);
+            }
         } catch (Throwable t) {
             taskListener.onFail(t);
         }
     }
 
+    /**
+     * Compresses a screenshot against the last screenshot uploaded in the session. The delta identifies the URL of
+     * that screenshot, so the server can restore the full image from it. The last upload is consumed either way.
+     * @return The delta, or {@code null} if there is no previous upload or the delta isn't smaller than the PNG.
+     */
+    private byte[] compressAgainstLastUpload(String testId, RunningSession runningSession, BufferedImage image, byte[] screenshotBytes) {
+        UploadedImage lastUpload = lastUploadedImages.remove(runningSession);
+        if (lastUpload == null) {
+            return null;
+        }
+
+        // Screenshots of different sizes can't be compressed against each other, so there is no point in decoding
+        PngHeader lastUploadHeader = PngHeader.read(lastUpload.pngBytes);
+        if (lastUploadHeader == null || lastUploadHeader.getWidth() != image.getWidth()
+                || lastUploadHeader.getHeight() != image.getHeight()) {
+            return null;
+        }
+
+        try {
+            BufferedImage lastUploadImage = ImageUtils.imageFromBytes(lastUpload.pngBytes);
+            // The delta is only worth sending if it is cheaper than the PNG encode, so the fastest level is used
+            byte[] delta = ImageDeltaCompressor.compressByRawBlocks(image, screenshotBytes, lastUploadImage,
+                    lastUpload.url, 10, Deflater.BEST_SPEED);
+            if (delta == screenshotBytes || delta.length >= screenshotBytes.length) {
+                return null;
+            }
+
+            logger.log(TraceLevel.Debug, Collections.singleton(testId), Stage.CHECK, Type.UPLOAD_START,
+                    Pair.of("deltaSize", delta.length), Pair.of("pngSize", screenshotBytes.length));
+            return delta;
+        } catch (IOException | EyesException e) {
+            GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, Type.UPLOAD_START, e, testId);
+            return null;
+        }
+    }
+
     public void matchWindow(final String testId, MatchWindowData data, final ServiceTaskListener<MatchResult> listener) {
         try {
             logger.log(TraceLevel.Info, Collections.singleton(testId), Stage.CHECK, Type.MATCH_START, Pair.of("matchWindowData", data));
@@ -119,4 +192,14 @@ public class CheckService extends EyesService<MatchWindowData, MatchResult> {
             listener.onFail(t);
         }
     }
+
+    private static class UploadedImage {
+        private final String url;
+        private final byte[] pngBytes;
+
+        private UploadedImage(String url, byte[] pngBytes) {
+            this.url = url;
+            this.pngBytes = pngBytes;
+        }
+    }
 }
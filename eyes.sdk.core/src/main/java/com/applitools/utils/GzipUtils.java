@@ -0,0 +1,86 @@
+package com.applitools.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip compression of large strings (e.g., captured DOMs) without materializing their encoded bytes.
+ */
+public class GzipUtils {
+
+    /**
+     * The size of the chunks in which the text is encoded and compressed.
+     */
+    public static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Encodes the text as UTF-8 and compresses it into the given stream in a single pass, one
+     * {@link #BUFFER_SIZE} chunk at a time. The chunks are copied into a single reused buffer, since writing the
+     * entire string would make the writer copy all of its chars at once.
+     * @param text   The text to compress.
+     * @param output The stream to write the compressed data to. It is not closed by this method.
+     * @throws IOException If writing to the output stream failed.
+     */
+    public static void writeGzipped(String text, OutputStream output) throws IOException {
+        ArgumentGuard.notNull(text, "text");
+        ArgumentGuard.notNull(output, "output");
+
+        GZIPOutputStream gzipStream = new GZIPOutputStream(new NonClosingOutputStream(output), BUFFER_SIZE);
+        Writer writer = new OutputStreamWriter(gzipStream, StandardCharsets.UTF_8);
+        char[] chunk = new char[BUFFER_SIZE];
+        int length = text.length();
+        for (int offset = 0; offset < length; offset += BUFFER_SIZE) {
+            int count = Math.min(BUFFER_SIZE, length - offset);
+            text.getChars(offset, offset + count, chunk, 0);
+            writer.write(chunk, 0, count);
+        }
+        writer.close();
+    }
+
+    /**
+     * @param text The text to compress.
+     * @return The gzip compressed UTF-8 encoding of the text.
+     * @throws IOException If the compression failed.
+     */
+    public static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, text.length() / 8));
+        writeGzipped(text, result);
+        return result.toByteArray();
+    }
+
+    /**
+     * Prevents closing the compression stream from closing the caller's stream.
+     */
+    private static class NonClosingOutputStream extends OutputStream {
+        private final OutputStream outputStream;
+
+        NonClosingOutputStream(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            outputStream.write(b, off, len);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            outputStream.write(b);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            outputStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.flush();
+        }
+    }
+}
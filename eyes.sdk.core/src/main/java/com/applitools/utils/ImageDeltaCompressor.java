@@ -3,21 +3,69 @@
  */
 package com.applitools.utils;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
-import java.io.*;
+import java.awt.image.Raster;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
 
 /**
  * Provides image compression based on delta between consecutive images.
+ * <p>
+ * The image is split into horizontal stripes of block rows, which are
+ * compared and compressed independently, in parallel. Each stripe is
+ * compressed into a deflate segment ending on a byte boundary, so the
+ * concatenated segments form a single deflate stream, the same as the one
+ * produced by compressing the blocks sequentially.
  */
 public class ImageDeltaCompressor {
 
     private static final byte[] PREAMBLE;
     private static final byte COMPRESS_BY_RAW_BLOCKS_FORMAT = 3;
+    private static final int CHANNELS_COUNT = 3;
+    private static final int ALL_CHANNELS_MASK = (1 << CHANNELS_COUNT) - 1;
+
+    // An empty deflate block marked as final, which ends the stream.
+    private static final byte[] FINAL_DEFLATE_BLOCK = {0x03, 0x00};
+
+    // Images smaller than this are compressed on the calling thread.
+    private static final int MIN_PIXELS_PER_STRIPE = 256 * 256;
+
+    private static final int STRIPE_THREADS_COUNT =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final int INITIAL_SCRATCH_BUFFER_SIZE = 64 * 1024;
+
+    // Scratch buffers which grew larger than this aren't kept between
+    // stripes, so a single huge image doesn't pin its buffers for good.
+    private static final int MAX_RETAINED_SCRATCH_BUFFER_SIZE =
+            4 * 1024 * 1024;
+
+    private static final ExecutorService stripeExecutor =
+            Executors.newFixedThreadPool(STRIPE_THREADS_COUNT,
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            StripeThread thread = new StripeThread(runnable);
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
 
     // Init the preamble (needs to be in a static init block since we must
     // handle encoding exception).
@@ -35,115 +83,321 @@ public class ImageDeltaCompressor {
     }
 
     /**
-     * Encapsulates a result for the CompareAndCopyBlockChannelData function.
+     * A growable byte array, reused between stripes.
+     */
+    private static class ScratchBuffer {
+        private byte[] bytes = new byte[INITIAL_SCRATCH_BUFFER_SIZE];
+        private int size;
+
+        private void trim() {
+            if (bytes.length > MAX_RETAINED_SCRATCH_BUFFER_SIZE) {
+                bytes = new byte[INITIAL_SCRATCH_BUFFER_SIZE];
+            }
+            size = 0;
+        }
+
+        private void ensureFree(int count) {
+            if (bytes.length - size < count) {
+                bytes = Arrays.copyOf(bytes,
+                        Math.max(bytes.length * 2, size + count));
+            }
+        }
+
+        private void writeByte(int value) {
+            ensureFree(1);
+            bytes[size++] = (byte) value;
+        }
+
+        /**
+         * Writes an int in big endian, as {@link DataOutputStream} does.
+         */
+        private void writeInt(int value) {
+            ensureFree(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+    }
+
+    /**
+     * The buffers used by a single thread for compressing a stripe.
      */
-    private static class CompareAndCopyBlockChannelDataResult {
-        private boolean isIdentical;
-        private byte[] buffer;
+    private static class StripeScratch {
+        private final ScratchBuffer[] channelBuffers =
+                new ScratchBuffer[CHANNELS_COUNT];
+        private final ScratchBuffer deflateBuffer = new ScratchBuffer();
+        private Deflater deflater;
+        private int deflaterLevel;
+        private int[] blockMasks = new int[0];
+
+        private StripeScratch() {
+            for (int channel = 0; channel < CHANNELS_COUNT; ++channel) {
+                channelBuffers[channel] = new ScratchBuffer();
+            }
+        }
 
         /**
-         *
-         * @param isIdentical Whether or not the target block was identical to
-         *                    the source block.
-         * @param buffer The target block's pixel values for a specific channel.
+         * A level change only takes effect in the middle of the next
+         * deflate call, so a deflater is created for each level instead.
          */
-        public CompareAndCopyBlockChannelDataResult(boolean isIdentical,
-                byte[] buffer) {
-            this.isIdentical = isIdentical;
-            this.buffer = buffer;
+        private Deflater getDeflater(int compressionLevel) {
+            if (deflater == null || deflaterLevel != compressionLevel) {
+                if (deflater != null) {
+                    deflater.end();
+                }
+                deflater = new Deflater(compressionLevel, true);
+                deflaterLevel = compressionLevel;
+            }
+            deflater.reset();
+            return deflater;
+        }
+
+        private int[] getBlockMasks(int blockColumnsCount) {
+            if (blockMasks.length < blockColumnsCount) {
+                blockMasks = new int[blockColumnsCount];
+            }
+            return blockMasks;
         }
 
         /**
-         * @return Whether or not the target block was identical to the
-         * source block.
+         * Drops the buffers which grew too large to be kept.
          */
-        public boolean getIsIdentical() {
-            return isIdentical;
+        private void trim() {
+            for (ScratchBuffer channelBuffer : channelBuffers) {
+                channelBuffer.trim();
+            }
+            deflateBuffer.trim();
         }
 
         /**
-         * @return The target block's pixel values for a specific channel.
+         * Releases the deflater, once the scratch won't be used again.
          */
-        public byte[] getBuffer() {
-            return buffer;
+        private void end() {
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+            }
         }
     }
 
     /**
-     * Computes the width and height of the image model contained in the block
-     * at the input column and row.
-     * @param imageSize The image size in pixels.
-     * @param blockSize The block size for which we would like to compute the
-     *                  image model width and height.
-     * @param blockColumn The block column index
-     * @param blockRow The block row index
-     * @return The width and height of the image model contained in the block.
+     * A thread of the stripe pool, which reuses its buffers and deflater
+     * between stripes. Other threads (i.e., the callers) use fresh ones, so
+     * they don't hold on to them once they are done compressing.
      */
-    private static Dimension getActualBlockSize(Dimension imageSize,
-            int blockSize, int blockColumn, int blockRow) {
-        int actualWidth = Math.min(imageSize.width - (blockColumn * blockSize),
-                blockSize);
-        int actualHeight = Math.min(imageSize.height - (blockRow * blockSize),
-                                blockSize);
+    private static class StripeThread extends Thread {
+        private final StripeScratch scratch = new StripeScratch();
+
+        private StripeThread(Runnable runnable) {
+            super(runnable, "DeltaCompressor");
+        }
+    }
+
+    /**
+     * The layout of the pixel bytes of an image of type
+     * {@code TYPE_4BYTE_ABGR} or {@code TYPE_3BYTE_BGR}, which may be a view
+     * of a larger image.
+     */
+    private static class PixelLayout {
+        private final byte[] data;
+        private final int baseOffset;
+        private final int scanlineStride;
+        private final int pixelLength;
+        // IMPORTANT: Notice that the pixel bytes are (A)BGR! The compared
+        // channels are B, G and R, skipping the alpha channel if there is one.
+        private final int firstChannelOffset;
+
+        private PixelLayout(BufferedImage image) {
+            Raster raster = image.getRaster();
+            ComponentSampleModel sampleModel =
+                    (ComponentSampleModel) raster.getSampleModel();
+            DataBuffer dataBuffer = raster.getDataBuffer();
+            data = ((DataBufferByte) dataBuffer).getData();
+            scanlineStride = sampleModel.getScanlineStride();
+            pixelLength = sampleModel.getPixelStride();
+            baseOffset = dataBuffer.getOffset()
+                    - raster.getSampleModelTranslateY() * scanlineStride
+                    - raster.getSampleModelTranslateX() * pixelLength;
+            firstChannelOffset = (pixelLength == 4) ? 1 : 0;
+        }
+
+        private static PixelLayout of(BufferedImage image) {
+            if (image.getType() != BufferedImage.TYPE_4BYTE_ABGR
+                    && image.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+                image = ImageUtils.copyImageWithType(image,
+                        ImageUtils.REQUIRED_IMAGE_TYPE);
+            }
+            return new PixelLayout(image);
+        }
 
-        return new Dimension(actualWidth, actualHeight);
+        private int getRowOffset(int y) {
+            return baseOffset + y * scanlineStride + firstChannelOffset;
+        }
     }
 
     /**
-     * Compares a block of pixels between the source and target images.
-     * @param sourcePixels The pixels of the source block.
-     * @param targetPixels The pixels of the target block
-     * @param imageSize The image size in pixels.
-     * @param pixelLength Bytes per pixel. Since pixel might include alpha.
-     * @param blockSize The block size in pixels.
-     * @param blockColumn The column index of the block to compare.
-     * @param blockRow The row index of the block to compare.
-     * @param channel The channel for which we compare the blocks
-     * @return Whether the source and target blocks are identical,
-     * and a copy of the target block's channel bytes.
+     * Compares a segment of a row of pixels between the source and target
+     * images.
+     * @return A mask of the channels which differ in the segment.
      */
-    @SuppressWarnings("SpellCheckingInspection")
-    private static CompareAndCopyBlockChannelDataResult
-            CompareAndCopyBlockChannelData(
-                byte[] sourcePixels, byte[] targetPixels,
-                Dimension imageSize, int pixelLength, int blockSize,
-            int blockColumn, int blockRow, int channel) {
-
-        boolean isIdentical = true; // initial default
-
-        // Getting the actual amount of model in the block we wish to copy
-        Dimension actualBlockSize =
-                getActualBlockSize(imageSize, blockSize, blockColumn, blockRow);
-
-        int actualBlockHeight = actualBlockSize.height;
-        int actualBlockWidth = actualBlockSize.width;
-
-        int stride = imageSize.width * pixelLength;
-
-        // The number of bytes actually contained in the block for the
-        // current channel (might be less than blockSize*blockSize)
-        byte[] channelBytes = new byte[actualBlockHeight*actualBlockWidth];
-        int channelBytesOffset = 0;
-
-        // Actually comparing and copying the pixels
-        byte sourceByte, targetByte;
-        for (int h = 0; h < actualBlockHeight; ++h) {
-            int offset = (((blockSize * blockRow) + h) * stride) +
-                    (blockSize * blockColumn * pixelLength) + channel;
-            for (int w = 0; w < actualBlockWidth; ++w) {
-                sourceByte = sourcePixels[offset];
-                targetByte = targetPixels[offset];
-                if (sourceByte != targetByte) {
-                    isIdentical = false;
+    private static int compareRowSegment(PixelLayout target,
+            int targetOffset, PixelLayout source, int sourceOffset,
+            int width) {
+        if (target.pixelLength == source.pixelLength) {
+            // Most rows are identical, so the whole segment is compared
+            // before looking into specific channels.
+            int targetStart = targetOffset - target.firstChannelOffset;
+            int sourceStart = sourceOffset - source.firstChannelOffset;
+            int length = width * target.pixelLength;
+            int i = 0;
+            while (i < length && target.data[targetStart + i]
+                    == source.data[sourceStart + i]) {
+                ++i;
+            }
+            if (i == length) {
+                return 0;
+            }
+        }
+
+        int mask = 0;
+        for (int w = 0; w < width && mask != ALL_CHANNELS_MASK; ++w) {
+            for (int channel = 0; channel < CHANNELS_COUNT; ++channel) {
+                if (target.data[targetOffset + channel]
+                        != source.data[sourceOffset + channel]) {
+                    mask |= 1 << channel;
                 }
+            }
+            targetOffset += target.pixelLength;
+            sourceOffset += source.pixelLength;
+        }
+        return mask;
+    }
 
-                channelBytes[channelBytesOffset++] = targetByte;
-                offset += pixelLength;
+    /**
+     * Compares the blocks of a stripe and compresses the target bytes of the
+     * blocks which differ, separately for each channel.
+     * @return The deflate segment of each channel, or {@code null} for a
+     * channel in which no block differs.
+     */
+    private static byte[][] compressStripe(PixelLayout target,
+            PixelLayout source, int width, int height, int blockSize,
+            int firstBlockRow, int lastBlockRow, int compressionLevel) {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread instanceof StripeThread) {
+            StripeScratch scratch = ((StripeThread) currentThread).scratch;
+            try {
+                return compressStripe(scratch, target, source, width, height,
+                        blockSize, firstBlockRow, lastBlockRow,
+                        compressionLevel);
+            } finally {
+                scratch.trim();
             }
         }
 
-        return new CompareAndCopyBlockChannelDataResult(isIdentical,
-                channelBytes);
+        StripeScratch scratch = new StripeScratch();
+        try {
+            return compressStripe(scratch, target, source, width, height,
+                    blockSize, firstBlockRow, lastBlockRow, compressionLevel);
+        } finally {
+            scratch.end();
+        }
+    }
+
+    private static byte[][] compressStripe(StripeScratch scratch,
+            PixelLayout target, PixelLayout source, int width, int height,
+            int blockSize, int firstBlockRow, int lastBlockRow,
+            int compressionLevel) {
+        int blockColumnsCount = (width + blockSize - 1) / blockSize;
+        int[] blockMasks = scratch.getBlockMasks(blockColumnsCount);
+        for (ScratchBuffer channelBuffer : scratch.channelBuffers) {
+            channelBuffer.size = 0;
+        }
+
+        for (int blockRow = firstBlockRow; blockRow < lastBlockRow;
+                ++blockRow) {
+            int top = blockRow * blockSize;
+            int actualBlockHeight = Math.min(height - top, blockSize);
+
+            Arrays.fill(blockMasks, 0, blockColumnsCount, 0);
+            for (int y = top; y < top + actualBlockHeight; ++y) {
+                int targetRowOffset = target.getRowOffset(y);
+                int sourceRowOffset = source.getRowOffset(y);
+                for (int blockColumn = 0; blockColumn < blockColumnsCount;
+                        ++blockColumn) {
+                    if (blockMasks[blockColumn] == ALL_CHANNELS_MASK) {
+                        continue;
+                    }
+                    int left = blockColumn * blockSize;
+                    blockMasks[blockColumn] |= compareRowSegment(
+                            target, targetRowOffset + left * target.pixelLength,
+                            source, sourceRowOffset + left * source.pixelLength,
+                            Math.min(width - left, blockSize));
+                }
+            }
+
+            for (int channel = 0; channel < CHANNELS_COUNT; ++channel) {
+                ScratchBuffer channelBuffer = scratch.channelBuffers[channel];
+                for (int blockColumn = 0; blockColumn < blockColumnsCount;
+                        ++blockColumn) {
+                    if ((blockMasks[blockColumn] & (1 << channel)) == 0) {
+                        continue;
+                    }
+
+                    int left = blockColumn * blockSize;
+                    int actualBlockWidth = Math.min(width - left, blockSize);
+                    channelBuffer.writeByte(channel);
+                    channelBuffer.writeInt(
+                            blockRow * blockColumnsCount + blockColumn);
+                    channelBuffer.ensureFree(
+                            actualBlockWidth * actualBlockHeight);
+                    for (int y = top; y < top + actualBlockHeight; ++y) {
+                        int offset = target.getRowOffset(y)
+                                + left * target.pixelLength + channel;
+                        for (int w = 0; w < actualBlockWidth; ++w) {
+                            channelBuffer.bytes[channelBuffer.size++] =
+                                    target.data[offset];
+                            offset += target.pixelLength;
+                        }
+                    }
+                }
+            }
+        }
+
+        byte[][] segments = new byte[CHANNELS_COUNT][];
+        for (int channel = 0; channel < CHANNELS_COUNT; ++channel) {
+            segments[channel] = deflateSegment(scratch,
+                    scratch.channelBuffers[channel], compressionLevel);
+        }
+        return segments;
+    }
+
+    /**
+     * Compresses the given bytes into a deflate segment which isn't final and
+     * ends on a byte boundary, so it can be followed by other segments.
+     * @return The segment, or {@code null} if there are no bytes to compress.
+     */
+    private static byte[] deflateSegment(StripeScratch scratch,
+            ScratchBuffer input, int compressionLevel) {
+        if (input.size == 0) {
+            return null;
+        }
+
+        Deflater deflater = scratch.getDeflater(compressionLevel);
+        ScratchBuffer output = scratch.deflateBuffer;
+        deflater.setInput(input.bytes, 0, input.size);
+        output.size = 0;
+        while (true) {
+            output.ensureFree(8 * 1024);
+            int free = output.bytes.length - output.size;
+            int count = deflater.deflate(output.bytes, output.size, free,
+                    Deflater.SYNC_FLUSH);
+            output.size += count;
+            if (count < free && deflater.needsInput()) {
+                break;
+            }
+        }
+        return Arrays.copyOf(output.bytes, output.size);
     }
 
     /**
@@ -163,97 +417,156 @@ public class ImageDeltaCompressor {
     public static byte[] compressByRawBlocks(BufferedImage target,
             byte[] targetEncoded, BufferedImage source, int blockSize)
                 throws IOException {
+        return compressByRawBlocks(target, targetEncoded, source, null,
+                blockSize);
+    }
 
-        // If there's no image to compare to, or the images are in different
-        // sizes, we simply return the encoded target.
+    /**
+     * Compresses a target image based on a difference from a source image,
+     * which is identified in the header of the result.
+     *
+     * @param target The image we want to compress. (type is TYPE_4BYTE_ABGR)
+     * @param targetEncoded The image we want to compress in its png bytes
+     *                      representation.
+     * @param source The baseline image by which a compression will be
+     *               performed. (type is TYPE_4BYTE_ABGR)
+     * @param sourceId The identifier of the source image (e.g., the URL it
+     *                 was uploaded to), or {@code null}.
+     * @param blockSize How many pixels per block.
+     * @return The compression result, or the {@code targetEncoded} if the
+     * compressed bytes count is greater than the uncompressed bytes count.
+     * @throws java.io.IOException If there was a problem reading/writing
+     * from/to the streams which are created during the process.
+     */
+    public static byte[] compressByRawBlocks(BufferedImage target,
+            byte[] targetEncoded, BufferedImage source, String sourceId,
+            int blockSize) throws IOException {
+        return compressByRawBlocks(target, targetEncoded, source, sourceId,
+                blockSize, Deflater.BEST_COMPRESSION);
+    }
+
+    /**
+     * Compresses a target image based on a difference from a source image,
+     * which is identified in the header of the result.
+     *
+     * @param target The image we want to compress. Views of a larger image
+     *               are supported. (type is TYPE_4BYTE_ABGR)
+     * @param targetEncoded The image we want to compress in its png bytes
+     *                      representation.
+     * @param source The baseline image by which a compression will be
+     *               performed. (type is TYPE_4BYTE_ABGR)
+     * @param sourceId The identifier of the source image (e.g., the URL it
+     *                 was uploaded to), or {@code null}.
+     * @param blockSize How many pixels per block.
+     * @param compressionLevel The deflate compression level, between
+     *                         {@link Deflater#BEST_SPEED} and
+     *                         {@link Deflater#BEST_COMPRESSION}.
+     * @return The compression result, or the {@code targetEncoded} if the
+     * compressed bytes count is greater than the uncompressed bytes count.
+     * @throws java.io.IOException If there was a problem reading/writing
+     * from/to the streams which are created during the process.
+     */
+    public static byte[] compressByRawBlocks(BufferedImage target,
+            byte[] targetEncoded, final BufferedImage source, String sourceId,
+            final int blockSize, final int compressionLevel)
+                throws IOException {
+
+        // If there's no image to compare to, the images are in different
+        // sizes, or either of them is kept off the heap, we simply return
+        // the encoded target.
         if (source == null
                 || (source.getWidth() != target.getWidth())
-                || (source.getHeight() != target.getHeight())) {
+                || (source.getHeight() != target.getHeight())
+                || TiledCanvas.isCanvas(target)
+                || TiledCanvas.isCanvas(source)) {
             return targetEncoded;
         }
 
-        // IMPORTANT: Notice that the pixel bytes are (A)BGR!
-        byte[] targetPixels =
-                ((DataBufferByte) target.getRaster().getDataBuffer()).getData();
-        byte[] sourcePixels =
-                ((DataBufferByte) source.getRaster().getDataBuffer()).getData();
-
-        // The number of bytes comprising a pixel (depends if there's an
-        // Alpha channel).
-        int pixelLength = (target.getAlphaRaster() != null) ? 4 : 3;
-        Dimension imageSize = new Dimension(target.getWidth(),
-                                            target.getHeight());
-
-        // Calculating how many block columns and rows we've got.
-        int blockColumnsCount = (target.getWidth() / blockSize)
-                + ((target.getWidth() % blockSize) == 0 ? 0 : 1);
-        int blockRowsCount = (target.getHeight() / blockSize)
-                + ((target.getHeight() % blockSize) == 0 ? 0 : 1);
-
-        // We'll use a stream for the compression.
+        final PixelLayout targetLayout = PixelLayout.of(target);
+        final PixelLayout sourceLayout = PixelLayout.of(source);
+        final int width = target.getWidth();
+        final int height = target.getHeight();
+
+        // Calculating how many block rows we've got, and splitting them
+        // into stripes.
+        int blockRowsCount = (height + blockSize - 1) / blockSize;
+        int stripesCount = Math.max(1, Math.min(STRIPE_THREADS_COUNT,
+                Math.min(blockRowsCount,
+                        width * height / MIN_PIXELS_PER_STRIPE)));
+        int blockRowsPerStripe =
+                (blockRowsCount + stripesCount - 1) / stripesCount;
+
+        // The first stripe is compressed on the calling thread.
+        List<Future<byte[][]>> stripeFutures = new ArrayList<>();
+        for (int stripe = 1; stripe < stripesCount; ++stripe) {
+            final int firstBlockRow = stripe * blockRowsPerStripe;
+            final int lastBlockRow = Math.min(blockRowsCount,
+                    firstBlockRow + blockRowsPerStripe);
+            stripeFutures.add(stripeExecutor.submit(new Callable<byte[][]>() {
+                @Override
+                public byte[][] call() {
+                    return compressStripe(targetLayout, sourceLayout, width,
+                            height, blockSize, firstBlockRow, lastBlockRow,
+                            compressionLevel);
+                }
+            }));
+        }
+
+        List<byte[][]> stripeSegments = new ArrayList<>(stripesCount);
+        stripeSegments.add(compressStripe(targetLayout, sourceLayout, width,
+                height, blockSize, 0, Math.min(blockRowsCount,
+                        blockRowsPerStripe), compressionLevel));
+        try {
+            for (Future<byte[][]> stripeFuture : stripeFutures) {
+                stripeSegments.add(stripeFuture.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    "Interrupted while compressing the image delta");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Failed compressing the image delta",
+                    e.getCause());
+        }
+
         ByteArrayOutputStream resultStream = new ByteArrayOutputStream();
-        CountingOutputStream resultCountingStream =
-                new CountingOutputStream(resultStream);
         // Since we need to write "short" and other variations.
         DataOutputStream resultDataOutputStream =
-                new DataOutputStream(resultCountingStream);
-        // This will be used for doing actual model compression
-        DeflaterOutputStream compressed =
-                new DeflaterOutputStream(resultCountingStream,
-                        new Deflater(Deflater.BEST_COMPRESSION,true));
-
-        DataOutputStream compressedDos = new DataOutputStream(compressed);
+                new DataOutputStream(resultStream);
 
         // Writing the header
         resultStream.write(PREAMBLE, 0, PREAMBLE.length);
         resultStream.write(COMPRESS_BY_RAW_BLOCKS_FORMAT);
-        // since we don't have a source ID, we write 0 length (Big endian).
-        resultDataOutputStream.writeShort(0);
+        // Writing the source ID length (Big endian), followed by the ID.
+        byte[] sourceIdBytes = sourceId == null ? new byte[0]
+                : sourceId.getBytes("UTF-8");
+        resultDataOutputStream.writeShort(sourceIdBytes.length);
+        resultDataOutputStream.write(sourceIdBytes);
 
         // Writing the block size (Big endian)
         resultDataOutputStream.writeShort(blockSize);
 
-        CompareAndCopyBlockChannelDataResult compareResult;
-        for (int channel = 0; channel < 3; ++channel) {
-
-            // The image is RGB, so all that's left is to skip the Alpha
-            // channel if there is one.
-            int actualChannelIndex = (pixelLength == 4) ? channel + 1 : channel;
-
-            int blockNumber = 0;
-            for (int blockRow = 0; blockRow < blockRowsCount; ++blockRow) {
-                for (int blockColumn = 0; blockColumn < blockColumnsCount;
-                        ++blockColumn) {
-
-                    compareResult = CompareAndCopyBlockChannelData
-                            (sourcePixels, targetPixels, imageSize,
-                                    pixelLength, blockSize, blockColumn,
-                                    blockRow, actualChannelIndex);
-
-                    if (!compareResult.getIsIdentical()) {
-                        compressed.write(channel);
-                        compressedDos.writeInt(blockNumber); // Big endian
-                        byte[] channelBytes = compareResult.getBuffer();
-                        compressed.write(channelBytes, 0, channelBytes.length);
-
-                        // If the number of bytes already written is greater
-                        // then the number of bytes for the uncompressed
-                        // target, we just return the uncompressed target.
-                        if (resultCountingStream.getBytesCount()
-                            > targetEncoded.length) {
-                            compressedDos.close();
-                            return Arrays.copyOf(targetEncoded,
-                                                    targetEncoded.length);
-                        }
-                    }
+        // The blocks are ordered by channel, and then by block number.
+        for (int channel = 0; channel < CHANNELS_COUNT; ++channel) {
+            for (byte[][] segments : stripeSegments) {
+                if (segments[channel] != null) {
+                    resultStream.write(segments[channel]);
+                }
 
-                    ++blockNumber;
+                // If the number of bytes already written is greater
+                // then the number of bytes for the uncompressed
+                // target, we just return the uncompressed target.
+                if (resultStream.size() > targetEncoded.length) {
+                    return targetEncoded;
                 }
             }
         }
-        compressedDos.close(); // flushing + closing the compression.
+        resultStream.write(FINAL_DEFLATE_BLOCK);
 
-        if (resultCountingStream.getBytesCount() > targetEncoded.length) {
+        if (resultStream.size() > targetEncoded.length) {
             return targetEncoded;
         }
 
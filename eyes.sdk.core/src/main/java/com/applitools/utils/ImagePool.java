@@ -0,0 +1,227 @@
+/*
+ * Applitools software.
+ */
+package com.applitools.utils;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of the pixel buffers of large {@code TYPE_4BYTE_ABGR} images.
+ * <p>
+ * Buffers are kept in buckets of size classes, a quarter of a power of two
+ * apart, so an image can reuse the buffer of a slightly larger one. Images
+ * are acquired explicitly, and returned to the pool by {@link #release}
+ * once nothing refers to them anymore. The total size of the buffers kept
+ * in the pool is capped; buffers released beyond the cap are left to the
+ * garbage collector.
+ */
+public class ImagePool {
+
+    public static final long DEFAULT_MAX_POOLED_BYTES = 256L * 1024 * 1024;
+
+    // Smaller images are cheap to allocate, and aren't pooled.
+    private static final int MIN_POOLED_BYTES = 64 * 1024;
+
+    private static final ColorModel ABGR_COLOR_MODEL = new ComponentColorModel(
+            ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[]{8, 8, 8, 8},
+            true, false, Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
+    private static final int[] ABGR_BAND_OFFSETS = {3, 2, 1, 0};
+
+    private static final ImagePool defaultPool =
+            new ImagePool(DEFAULT_MAX_POOLED_BYTES);
+
+    private final long maxPooledBytes;
+    private final Map<Integer, ArrayDeque<byte[]>> buckets = new HashMap<>();
+    // Guards against a buffer being pooled twice, and shared by two images.
+    private final Set<byte[]> pooledBuffers =
+            Collections.newSetFromMap(new IdentityHashMap<byte[], Boolean>());
+    // The buffers allocated by the pool, which are the only ones it takes
+    // back. Arrays are compared by identity, and are dropped from the set
+    // once they are garbage collected.
+    private final Set<byte[]> ownedBuffers =
+            Collections.newSetFromMap(new WeakHashMap<byte[], Boolean>());
+
+    private long pooledBytes;
+    private long peakPooledBytes;
+    private long acquireCount;
+    private long hitCount;
+
+    /**
+     * @param maxPooledBytes The maximal total size of the buffers kept in
+     *                       the pool.
+     */
+    public ImagePool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    /**
+     * @return The pool shared by the capture and image pipelines.
+     */
+    public static ImagePool getDefault() {
+        return defaultPool;
+    }
+
+    /**
+     * Returns a transparent black image, which reuses a pooled buffer if
+     * there is one.
+     * @param width  The width of the image.
+     * @param height The height of the image.
+     * @return An image of type {@code TYPE_4BYTE_ABGR}.
+     */
+    public BufferedImage acquire(int width, int height) {
+        ArgumentGuard.greaterThanZero(width, "width");
+        ArgumentGuard.greaterThanZero(height, "height");
+
+        long imageBytes = (long) width * height * 4;
+        if (imageBytes < MIN_POOLED_BYTES || imageBytes > maxPooledBytes) {
+            return new BufferedImage(width, height,
+                    BufferedImage.TYPE_4BYTE_ABGR);
+        }
+
+        int capacity = getCapacityClass((int) imageBytes);
+        byte[] buffer = null;
+        synchronized (this) {
+            ++acquireCount;
+            ArrayDeque<byte[]> bucket = buckets.get(capacity);
+            if (bucket != null && !bucket.isEmpty()) {
+                buffer = bucket.pop();
+                pooledBuffers.remove(buffer);
+                pooledBytes -= capacity;
+                ++hitCount;
+            }
+        }
+
+        if (buffer == null) {
+            buffer = new byte[capacity];
+            synchronized (this) {
+                ownedBuffers.add(buffer);
+            }
+        } else {
+            Arrays.fill(buffer, 0, (int) imageBytes, (byte) 0);
+        }
+
+        WritableRaster raster = Raster.createInterleavedRaster(
+                new DataBufferByte(buffer, buffer.length), width, height,
+                width * 4, 4, ABGR_BAND_OFFSETS, null);
+        return new BufferedImage(ABGR_COLOR_MODEL, raster, false, null);
+    }
+
+    /**
+     * Returns the buffer of an image to the pool. The image, and any view of
+     * it, mustn't be used after it is released. Only the buffers allocated
+     * by this pool's {@link #acquire} are taken back: other images (even of
+     * the same type and size), and views of images, are ignored.
+     * @param image The image to release, or {@code null}.
+     */
+    public void release(BufferedImage image) {
+        if (image == null || image.getType() != BufferedImage.TYPE_4BYTE_ABGR
+                || image.getRaster().getParent() != null) {
+            return;
+        }
+
+        DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+        if (!(dataBuffer instanceof DataBufferByte)
+                || dataBuffer.getNumBanks() != 1) {
+            return;
+        }
+
+        byte[] buffer = ((DataBufferByte) dataBuffer).getData();
+        int capacity = buffer.length;
+        if (capacity < MIN_POOLED_BYTES || getCapacityClass(capacity) != capacity) {
+            return;
+        }
+
+        synchronized (this) {
+            if (pooledBytes + capacity > maxPooledBytes
+                    || !ownedBuffers.contains(buffer)
+                    || !pooledBuffers.add(buffer)) {
+                return;
+            }
+
+            ArrayDeque<byte[]> bucket = buckets.get(capacity);
+            if (bucket == null) {
+                bucket = new ArrayDeque<>();
+                buckets.put(capacity, bucket);
+            }
+            bucket.push(buffer);
+            pooledBytes += capacity;
+            peakPooledBytes = Math.max(peakPooledBytes, pooledBytes);
+        }
+    }
+
+    /**
+     * Releases several images, each of them once.
+     * @param images The images to release. {@code null} values are ignored.
+     */
+    public void release(BufferedImage... images) {
+        Set<BufferedImage> released = Collections.newSetFromMap(
+                new IdentityHashMap<BufferedImage, Boolean>());
+        for (BufferedImage image : images) {
+            if (image != null && released.add(image)) {
+                release(image);
+            }
+        }
+    }
+
+    /**
+     * Rounds a size up to its size class: a power of two, or a power of two
+     * plus one, two or three quarters of it.
+     */
+    static int getCapacityClass(int bytes) {
+        int powerOfTwo = Integer.highestOneBit(bytes);
+        if (powerOfTwo == bytes || powerOfTwo < 4) {
+            return bytes;
+        }
+
+        int quarter = powerOfTwo / 4;
+        long capacity = powerOfTwo
+                + (long) quarter * ((bytes - powerOfTwo + quarter - 1) / quarter);
+        return capacity > Integer.MAX_VALUE ? bytes : (int) capacity;
+    }
+
+    public synchronized long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The part of the acquired images of pooled sizes which reused a
+     * pooled buffer.
+     */
+    public synchronized double getHitRate() {
+        return acquireCount == 0 ? 0 : (double) hitCount / acquireCount;
+    }
+
+    /**
+     * @return The total size of the buffers currently kept in the pool.
+     */
+    public synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    /**
+     * @return The maximal total size of the buffers kept in the pool so far.
+     */
+    public synchronized long getPeakPooledBytes() {
+        return peakPooledBytes;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Applitools software.
+ */
+package com.applitools.utils;
+
+import com.applitools.eyes.Region;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A crop, scale and crop of an image, which is recorded first, and then
+ * rendered in a single pass.
+ * <p>
+ * The result is the same as that of {@link ImageUtils#cropImage},
+ * {@link ImageUtils#scaleImage(BufferedImage, double)} and
+ * {@link ImageUtils#cropImage} applied in turn, but the crops are only
+ * bounds on the image, so no intermediate image is allocated for them, and
+ * only the part of the scaled image which is kept by the last crop is
+ * interpolated. {@link #drawInto} writes the result straight into another
+ * image, e.g., a stitched screenshot.
+ */
+public class ImageTransform {
+
+    private final BufferedImage image;
+
+    // The part of the image which is scaled, in the image's coordinates.
+    private Region sourceRegion;
+
+    private boolean isScaled;
+    private int scaledWidth;
+    private int scaledHeight;
+
+    // The part of the scaled image which is kept, in its coordinates.
+    private Region scaledRegion;
+
+    /**
+     * @param image The image to transform.
+     */
+    public ImageTransform(BufferedImage image) {
+        ArgumentGuard.notNull(image, "image");
+        this.image = image;
+        sourceRegion = new Region(0, 0, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Crops the current result, like {@link ImageUtils#cropImage}. A region
+     * which is outside the current result is ignored.
+     * @param region The region to crop, relative to the current result.
+     * @return This instance.
+     */
+    public ImageTransform crop(Region region) {
+        ArgumentGuard.notNull(region, "region");
+        if (isScaled) {
+            scaledRegion = crop(scaledRegion, region);
+        } else {
+            sourceRegion = crop(sourceRegion, region);
+        }
+        return this;
+    }
+
+    /**
+     * Scales the current result, like
+     * {@link ImageUtils#scaleImage(BufferedImage, double)}. A transform is
+     * scaled at most once.
+     * @param scaleRatio The ratio to scale by.
+     * @return This instance.
+     */
+    public ImageTransform scale(double scaleRatio) {
+        if (isScaled) {
+            throw new IllegalStateException("The image is already scaled");
+        }
+        if (scaleRatio == 1) {
+            return this;
+        }
+
+        scaledWidth = (int) Math.ceil(sourceRegion.getWidth() * scaleRatio);
+        scaledHeight = (int) Math.ceil(sourceRegion.getHeight() * scaleRatio);
+        scaledRegion = new Region(0, 0, scaledWidth, scaledHeight);
+        isScaled = true;
+        return this;
+    }
+
+    /**
+     * @return The width of the result.
+     */
+    public int getWidth() {
+        return isScaled ? scaledRegion.getWidth() : sourceRegion.getWidth();
+    }
+
+    /**
+     * @return The height of the result.
+     */
+    public int getHeight() {
+        return isScaled ? scaledRegion.getHeight() : sourceRegion.getHeight();
+    }
+
+    /**
+     * Renders the result into an image, clipping it to the image's bounds.
+     * @param target The image to render into.
+     * @param x      The X coordinate to render the result to.
+     * @param y      The Y coordinate to render the result to.
+     */
+    public void drawInto(BufferedImage target, int x, int y) {
+        ArgumentGuard.notNull(target, "target");
+        BufferedImage croppedImage = ImageUtils.cropImage(image, sourceRegion);
+        if (isScaled) {
+            ImageUtils.resizeImage(croppedImage, scaledWidth, scaledHeight,
+                    scaledRegion, target, x, y);
+        } else {
+            TiledCanvas.paste(target, croppedImage, x, y);
+        }
+    }
+
+    /**
+     * @return The result as an image. If the transform only crops, the
+     * result is a view of the transformed image (see
+     * {@link ImageUtils#cropImage}).
+     */
+    public BufferedImage apply() {
+        if (!isScaled) {
+            return ImageUtils.cropImage(image, sourceRegion);
+        }
+
+        BufferedImage result = ImagePool.getDefault().acquire(getWidth(), getHeight());
+        drawInto(result, 0, 0);
+        return result;
+    }
+
+    private static Region crop(Region bounds, Region region) {
+        Region cropRegion = new Region(0, 0, bounds.getWidth(), bounds.getHeight());
+        cropRegion.intersect(region);
+        if (cropRegion.isSizeEmpty()) {
+            return bounds;
+        }
+
+        return new Region(bounds.getLeft() + cropRegion.getLeft(),
+                bounds.getTop() + cropRegion.getTop(),
+                cropRegion.getWidth(), cropRegion.getHeight());
+    }
+}
@@ -5,16 +5,25 @@ package com.applitools.utils;
 
 import com.applitools.eyes.*;
 import org.apache.commons.codec.binary.Base64;
-import org.imgscalr.Scalr;
+import org.apache.commons.codec.binary.Base64InputStream;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
 import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.io.*;
 import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.zip.Deflater;
 
 public class ImageUtils {
 
@@ -22,7 +31,8 @@ public class ImageUtils {
     public static final int REQUIRED_IMAGE_TYPE = BufferedImage.TYPE_4BYTE_ABGR;
 
     public static BufferedImage normalizeImageType(BufferedImage image) {
-        if (image.getType() == REQUIRED_IMAGE_TYPE) {
+        // Canvases have the required pixel layout, and are kept off the heap
+        if (image.getType() == REQUIRED_IMAGE_TYPE || TiledCanvas.isCanvas(image)) {
             return image;
         }
 
@@ -35,28 +45,28 @@ public class ImageUtils {
      * @return The PNG bytes representation of the image.
      */
     public static byte[] encodeAsPng(BufferedImage image) {
-
         ArgumentGuard.notNull(image, "image");
 
-        byte[] encodedImage; // PNG representation.
         ByteArrayOutputStream pngBytesStream = new ByteArrayOutputStream();
+        encodeAsPng(image, pngBytesStream, Deflater.DEFAULT_COMPRESSION);
+        return pngBytesStream.toByteArray();
+    }
 
+    /**
+     * Encodes a given image as PNG, using multiple threads for large images.
+     * @param image            The image to encode.
+     * @param stream           The stream to write the PNG to. It isn't closed.
+     * @param compressionLevel The deflate compression level, trading speed
+     *                         ({@link Deflater#BEST_SPEED}) for size
+     *                         ({@link Deflater#BEST_COMPRESSION}).
+     */
+    public static void encodeAsPng(BufferedImage image, OutputStream stream,
+                                   int compressionLevel) {
         try {
-            // Get the clipped image in PNG encoding.
-            ImageIO.write(image, "png", pngBytesStream);
-            pngBytesStream.flush();
-            encodedImage = pngBytesStream.toByteArray();
+            PngEncoder.encode(image, stream, compressionLevel);
         } catch (IOException e) {
             throw new EyesException("Failed to encode image", e);
-        } finally {
-            try {
-                pngBytesStream.close();
-            } catch (IOException e) {
-                //noinspection ThrowFromFinallyBlock
-                throw new EyesException("Failed to close png byte stream", e);
-            }
         }
-        return encodedImage;
     }
 
     /**
@@ -139,10 +149,12 @@ public class ImageUtils {
             EyesException {
         ArgumentGuard.notNullOrEmpty(image64, "image64");
 
-        // Get the image bytes
-        byte[] imageBytes =
-                Base64.decodeBase64(image64.getBytes(Charset.forName("UTF-8")));
-        return imageFromBytes(imageBytes);
+        // The base64 is decoded while the image is read, without an
+        // intermediate copy of the image bytes.
+        InputStream imageStream = new Base64InputStream(
+                new ByteArrayInputStream(
+                        image64.getBytes(Charset.forName("UTF-8"))));
+        return decodeImage(imageStream, null, 0, 0);
     }
 
     /**
@@ -165,18 +177,114 @@ public class ImageUtils {
      */
     public static BufferedImage imageFromBytes(byte[] imageBytes) throws
             EyesException {
-        BufferedImage image;
+        return imageFromBytes(imageBytes, null);
+    }
+
+    /**
+     * Creates a BufferedImage instance from raw image bytes, decoding the
+     * pixels straight into the given image when possible.
+     * @param imageBytes  The raw bytes of the image.
+     * @param destination An image of type {@link #REQUIRED_IMAGE_TYPE} to
+     *                    decode into, or {@code null}. It is only used if it
+     *                    has the size of the decoded image.
+     * @return A BufferedImage instance representing the image.
+     * @throws EyesException If there was a problem
+     *                       creating the {@code BufferedImage} instance.
+     */
+    public static BufferedImage imageFromBytes(byte[] imageBytes,
+                                               BufferedImage destination)
+            throws EyesException {
+        ArgumentGuard.notNull(imageBytes, "imageBytes");
+        return decodeImage(new ByteArrayInputStream(imageBytes), destination,
+                0, 0);
+    }
+
+    /**
+     * Creates a BufferedImage instance from raw image bytes, leaving out the
+     * given number of rows at the top and at the bottom. The rows are left
+     * out while decoding, so the pixels are written once, straight into the
+     * returned image. A crop which doesn't leave any rows is ignored.
+     * @param imageBytes The raw bytes of the image.
+     * @param cropTop    The number of rows to leave out at the top.
+     * @param cropBottom The number of rows to leave out at the bottom.
+     * @return A BufferedImage instance representing the image.
+     * @throws EyesException If there was a problem
+     *                       creating the {@code BufferedImage} instance.
+     */
+    public static BufferedImage imageFromBytes(byte[] imageBytes, int cropTop,
+                                               int cropBottom)
+            throws EyesException {
+        ArgumentGuard.notNull(imageBytes, "imageBytes");
+        return decodeImage(new ByteArrayInputStream(imageBytes), null,
+                cropTop, cropBottom);
+    }
+
+    /**
+     * Decodes an image of type {@link #REQUIRED_IMAGE_TYPE}, leaving out the
+     * given rows. Images with an alpha channel are decoded directly into that
+     * type, other images are converted once they are decoded.
+     */
+    private static BufferedImage decodeImage(InputStream stream,
+                                             BufferedImage destination,
+                                             int cropTop, int cropBottom)
+            throws EyesException {
+        ImageInputStream input = new MemoryCacheImageInputStream(stream);
+        ImageReader reader = null;
         try {
-            ByteArrayInputStream screenshotStream =
-                    new ByteArrayInputStream(imageBytes);
-            image = ImageIO.read(screenshotStream);
-            screenshotStream.close();
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new EyesException("Failed to create buffered image! "
+                        + "Unsupported image format.");
+            }
+            reader = readers.next();
+            reader.setInput(input, true, true);
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            int top = cropTop > 0 && cropTop < height ? cropTop : 0;
+            int bottom = cropBottom > 0 && cropBottom < height - top
+                    ? cropBottom : 0;
+            if (top > 0 || bottom > 0) {
+                height -= top + bottom;
+                param.setSourceRegion(new Rectangle(0, top, width, height));
+            }
+
+            if (supportsImageType(reader, REQUIRED_IMAGE_TYPE)) {
+                if (destination == null
+                        || destination.getType() != REQUIRED_IMAGE_TYPE
+                        || destination.getWidth() != width
+                        || destination.getHeight() != height) {
+                    destination = ImagePool.getDefault().acquire(width, height);
+                }
+                param.setDestination(destination);
+            }
+
             // Make sure the image is of the correct type
-            image = normalizeImageType(image);
+            return normalizeImageType(reader.read(0, param));
         } catch (IOException e) {
             throw new EyesException("Failed to create buffered image!", e);
+        } finally {
+            if (reader != null) {
+                reader.dispose();
+            }
+            try {
+                input.close();
+            } catch (IOException ignored) {
+            }
         }
-        return image;
+    }
+
+    private static boolean supportsImageType(ImageReader reader,
+                                             int imageType)
+            throws IOException {
+        Iterator<ImageTypeSpecifier> imageTypes = reader.getImageTypes(0);
+        while (imageTypes.hasNext()) {
+            if (imageTypes.next().getBufferedImageType() == imageType) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -193,11 +301,9 @@ public class ImageUtils {
         BufferedImage imagePart = image.getSubimage(
                 region.getLeft(), region.getTop(), region.getWidth(),
                 region.getHeight());
-        // IMPORTANT We copy the image this way because just using getSubImage
-        // created a later problem (maybe an actual Java bug): the pixels
-        // weren't what they were supposed to be.
-        byte[] imagePartBytes = encodeAsPng(imagePart);
-        return imageFromBytes(imagePartBytes);
+        // IMPORTANT The part is copied, since a sub image shares its pixels
+        // with the image, and isn't laid out like a standalone image.
+        return copyPixels(imagePart);
     }
 
     /**
@@ -211,6 +317,16 @@ public class ImageUtils {
 
         if (deg % 360 == 0) return image;
 
+        // Right angle rotations (which are the ones used for mobile
+        // orientations) just move pixels, so they are done on the pixel bytes.
+        if (deg % 90 == 0) {
+            BufferedImage normalizedImage = normalizeImageType(image);
+            if (normalizedImage.getRaster().getDataBuffer() instanceof DataBufferByte) {
+                int quarterTurns = (int) (((deg / 90) % 4 + 4) % 4);
+                return rotateByQuarterTurns(normalizedImage, quarterTurns);
+            }
+        }
+
         double radians = Math.toRadians(deg);
 
         // We need this to calculate the width/height of the rotated image.
@@ -246,6 +362,79 @@ public class ImageUtils {
         return normalizeImageType(rotatedImage);
     }
 
+    /**
+     * Rotates an image of type {@link #REQUIRED_IMAGE_TYPE} clockwise by
+     * whole quarter turns. Pixels are copied in square blocks, so both the
+     * rows read and the rows written stay in the cache.
+     */
+    private static BufferedImage rotateByQuarterTurns(BufferedImage image,
+                                                      int quarterTurns) {
+        final int blockSize = 32;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean isTransposed = quarterTurns % 2 == 1;
+        BufferedImage rotatedImage = ImagePool.getDefault().acquire(
+                isTransposed ? height : width, isTransposed ? width : height);
+
+        Raster raster = image.getRaster();
+        ComponentSampleModel sampleModel =
+                (ComponentSampleModel) raster.getSampleModel();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        byte[] source = ((DataBufferByte) dataBuffer).getData();
+        int sourceStride = sampleModel.getScanlineStride();
+        int sourceBase = dataBuffer.getOffset()
+                - raster.getSampleModelTranslateY() * sourceStride
+                - raster.getSampleModelTranslateX() * 4;
+
+        byte[] target = ((DataBufferByte) rotatedImage.getRaster()
+                .getDataBuffer()).getData();
+        int targetStride = rotatedImage.getWidth() * 4;
+
+        // The offset of the target pixel of source pixel (0, 0), and the
+        // steps of the target offset for moving right and down in the source.
+        int targetOrigin;
+        int xStep;
+        int yStep;
+        switch (quarterTurns) {
+            case 1:
+                targetOrigin = (height - 1) * 4;
+                xStep = targetStride;
+                yStep = -4;
+                break;
+            case 2:
+                targetOrigin = (height - 1) * targetStride + (width - 1) * 4;
+                xStep = -4;
+                yStep = -targetStride;
+                break;
+            default:
+                targetOrigin = (width - 1) * targetStride;
+                xStep = -targetStride;
+                yStep = 4;
+                break;
+        }
+
+        for (int blockTop = 0; blockTop < height; blockTop += blockSize) {
+            int blockBottom = Math.min(height, blockTop + blockSize);
+            for (int blockLeft = 0; blockLeft < width; blockLeft += blockSize) {
+                int blockRight = Math.min(width, blockLeft + blockSize);
+                for (int y = blockTop; y < blockBottom; ++y) {
+                    int sourceOffset = sourceBase + y * sourceStride + blockLeft * 4;
+                    int targetOffset = targetOrigin + y * yStep + blockLeft * xStep;
+                    for (int x = blockLeft; x < blockRight; ++x) {
+                        target[targetOffset] = source[sourceOffset];
+                        target[targetOffset + 1] = source[sourceOffset + 1];
+                        target[targetOffset + 2] = source[sourceOffset + 2];
+                        target[targetOffset + 3] = source[sourceOffset + 3];
+                        sourceOffset += 4;
+                        targetOffset += xStep;
+                    }
+                }
+            }
+        }
+
+        return rotatedImage;
+    }
+
     public static boolean areImagesEqual(BufferedImage img1, BufferedImage img2) {
         if (img1.getWidth() == img2.getWidth() && img1.getHeight() == img2.getHeight()) {
             for (int x = 0; x < img1.getWidth(); x++) {
@@ -265,13 +454,15 @@ public class ImageUtils {
      * @param src         The image to copy.
      * @param updatedType The type of the copied image.
      *                    See {@link BufferedImage#getType()}.
-     * @return A copy of the {@code src} of the requested type.
+     * @return A copy of the {@code src} of the requested type. Copies of type
+     * {@link #REQUIRED_IMAGE_TYPE} are acquired from {@link ImagePool}.
      */
     public static BufferedImage copyImageWithType(BufferedImage src,
                                                   int updatedType) {
         ArgumentGuard.notNull(src, "src");
-        BufferedImage result = new BufferedImage(src.getWidth(),
-                src.getHeight(), updatedType);
+        BufferedImage result = updatedType == REQUIRED_IMAGE_TYPE
+                ? ImagePool.getDefault().acquire(src.getWidth(), src.getHeight())
+                : new BufferedImage(src.getWidth(), src.getHeight(), updatedType);
         Graphics2D g2 = result.createGraphics();
         g2.drawRenderedImage(src, null);
         g2.dispose();
@@ -351,12 +542,54 @@ public class ImageUtils {
         return (int) Math.max(0, Math.min(255, (a0 * (t * t * t)) + (a1 * (t * t)) + (a2 * t) + (x1)));
     }
 
+    /**
+     * Resizes an image like {@link #resizeImage(BufferedImage, int, int)},
+     * but only writes a window of the resized image, straight into a target
+     * image. The resized image itself is never allocated.
+     * @param image        The image to resize.
+     * @param targetWidth  The width to resize the image to.
+     * @param targetHeight The height to resize the image to.
+     * @param window       The part of the resized image to write. It must be
+     *                     within the resized image.
+     * @param target       The image to write into.
+     * @param targetX      The X coordinate in {@code target} to write the
+     *                     window to.
+     * @param targetY      The Y coordinate in {@code target} to write the
+     *                     window to.
+     */
+    static void resizeImage(BufferedImage image, int targetWidth, int targetHeight,
+                            Region window, BufferedImage target, int targetX, int targetY) {
+        image = normalizeImageType(image);
+
+        if (image.getWidth() == targetWidth && image.getHeight() == targetHeight) {
+            TiledCanvas.paste(target, cropImage(image, window), targetX, targetY);
+        } else if (targetWidth > image.getWidth() || targetHeight > image.getHeight()) {
+            scaleImageBicubic(image, targetWidth, targetHeight, window, target, targetX, targetY);
+        } else {
+            scaleImageIncrementally(image, targetWidth, targetHeight, window, target, targetX, targetY);
+        }
+    }
+
     private static BufferedImage scaleImageBicubic(BufferedImage srcImage, int targetWidth, int targetHeight) {
+        BufferedImage dstImage = ImagePool.getDefault().acquire(targetWidth, targetHeight);
+        scaleImageBicubic(srcImage, targetWidth, targetHeight,
+                new Region(0, 0, targetWidth, targetHeight), dstImage, 0, 0);
+        return dstImage;
+    }
 
-        normalizeImageType(srcImage);
+    /**
+     * Scales an image, writing the given window of the scaled image into the
+     * target image. Only the parts of the intermediate buffers which make up
+     * the window are interpolated.
+     */
+    private static void scaleImageBicubic(BufferedImage srcImage, int targetWidth, int targetHeight,
+                                          Region window, BufferedImage target, int targetX, int targetY) {
 
-        DataBuffer bufSrc = srcImage.getRaster().getDataBuffer();
-        DataBuffer bufDst = new DataBufferByte(targetWidth * targetHeight * 4);
+        // The pixels are addressed as a standalone image, so views (e.g.,
+        // cropped images) are copied first.
+        ImagePool pool = ImagePool.getDefault();
+        BufferedImage standaloneImage = copyIfView(normalizeImageType(srcImage));
+        DataBuffer bufSrc = standaloneImage.getRaster().getDataBuffer();
 
         int wSrc = srcImage.getWidth();
         int hSrc = srcImage.getHeight();
@@ -372,7 +605,8 @@ public class ImageUtils {
 
         // Pass 1 - interpolate rows
         // buf1 has width of dst2 and height of src
-        DataBuffer buf1 = new DataBufferByte(wDst2 * hSrc * 4);
+        BufferedImage buf1Image = pool.acquire(wDst2, hSrc);
+        DataBuffer buf1 = buf1Image.getRaster().getDataBuffer();
         for (i = 0; i < hSrc; i++) {
             for (j = 0; j < wDst2; j++) {
                 x = (double) j * (wSrc - 1) / wDst2;
@@ -392,16 +626,27 @@ public class ImageUtils {
             }
         }
 
+        int windowLeft = window.getLeft();
+        int windowTop = window.getTop();
+        int windowWidth = window.getWidth();
+        int windowHeight = window.getHeight();
+        byte[] dstRow = new byte[windowWidth * 4];
+
         // Pass 2 - interpolate columns
-        // buf2 has width and height of dst2
-        DataBuffer buf2 = new DataBufferByte(wDst2 * hDst2 * 4);
-        for (i = 0; i < hDst2; i++) {
-            y = (double) i * (hSrc - 1) / hDst2;
+        // buf2 has the part of dst2 which is scaled into the window, and
+        // isn't needed when no further scaling is needed
+        int m = wM * hM;
+        int w2 = windowWidth * wM;
+        int h2 = windowHeight * hM;
+        BufferedImage buf2Image = m > 1 ? pool.acquire(w2, h2) : null;
+        DataBuffer buf2 = buf2Image != null ? buf2Image.getRaster().getDataBuffer() : null;
+        for (i = 0; i < h2; i++) {
+            y = (double) (windowTop * hM + i) * (hSrc - 1) / hDst2;
             yPos = (int) Math.floor(y);
             t = y - yPos;
-            for (j = 0; j < wDst2; j++) {
-                buf1Pos = (yPos * wDst2 + j) * 4;
-                buf2Pos = (i * wDst2 + j) * 4;
+            for (j = 0; j < w2; j++) {
+                buf1Pos = (yPos * wDst2 + windowLeft * wM + j) * 4;
+                buf2Pos = (i * w2 + j) * 4;
                 for (k = 0; k < 4; k++) {
                     kPos = buf1Pos + k;
                     int y0 = (yPos > 0) ? buf1.getElem(kPos - wDst2 * 4) : 2 * buf1.getElem(kPos) - buf1.getElem(kPos + wDst2 * 4);
@@ -409,16 +654,24 @@ public class ImageUtils {
                     int y2 = buf1.getElem(kPos + wDst2 * 4);
                     int y3 = (yPos < hSrc - 2) ? buf1.getElem(kPos + wDst2 * 8) : 2 * buf1.getElem(kPos + wDst2 * 4) - buf1.getElem(kPos);
                     //noinspection SuspiciousNameCombination
-                    buf2.setElem(buf2Pos + k, interpolateCubic(y0, y1, y2, y3, t));
+                    int value = interpolateCubic(y0, y1, y2, y3, t);
+                    if (buf2 != null) {
+                        buf2.setElem(buf2Pos + k, value);
+                    } else {
+                        dstRow[j * 4 + k] = (byte) value;
+                    }
                 }
             }
+
+            if (buf2 == null) {
+                TiledCanvas.writeRow(target, targetX, targetY + i, dstRow, windowWidth);
+            }
         }
 
         // Pass 3 - scale to dst
-        int m = wM * hM;
         if (m > 1) {
-            for (i = 0; i < targetHeight; i++) {
-                for (j = 0; j < targetWidth; j++) {
+            for (i = 0; i < windowHeight; i++) {
+                for (j = 0; j < windowWidth; j++) {
                     int r = 0;
                     int g = 0;
                     int b = 0;
@@ -427,7 +680,7 @@ public class ImageUtils {
                         yPos = (int) (i * hM + y);
                         for (x = 0; x < wM; x++) {
                             xPos = (int) (j * wM + x);
-                            int xyPos = (yPos * wDst2 + xPos) * 4;
+                            int xyPos = (yPos * w2 + xPos) * 4;
                             r += buf2.getElem(xyPos);
                             g += buf2.getElem(xyPos + 1);
                             b += buf2.getElem(xyPos + 2);
@@ -435,23 +688,32 @@ public class ImageUtils {
                         }
                     }
 
-                    int pos = (i * targetWidth + j) * 4;
-                    bufDst.setElem(pos, Math.round(r / m));
-                    bufDst.setElem(pos + 1, Math.round(g / m));
-                    bufDst.setElem(pos + 2, Math.round(b / m));
-                    bufDst.setElem(pos + 3, Math.round(a / m));
+                    int pos = j * 4;
+                    dstRow[pos] = (byte) Math.round(r / m);
+                    dstRow[pos + 1] = (byte) Math.round(g / m);
+                    dstRow[pos + 2] = (byte) Math.round(b / m);
+                    dstRow[pos + 3] = (byte) Math.round(a / m);
                 }
+                TiledCanvas.writeRow(target, targetX, targetY + i, dstRow, windowWidth);
             }
-        } else {
-            bufDst = buf2;
         }
 
-        BufferedImage dstImage = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_4BYTE_ABGR);
-        dstImage.setData(Raster.createRaster(dstImage.getSampleModel(), bufDst, null));
-        return dstImage;
+        pool.release(buf1Image, buf2Image, standaloneImage == srcImage ? null : standaloneImage);
     }
 
     private static BufferedImage scaleImageIncrementally(BufferedImage src, int targetWidth, int targetHeight) {
+        BufferedImage dstImage = ImagePool.getDefault().acquire(targetWidth, targetHeight);
+        scaleImageIncrementally(src, targetWidth, targetHeight,
+                new Region(0, 0, targetWidth, targetHeight), dstImage, 0, 0);
+        return dstImage;
+    }
+
+    /**
+     * Scales an image down in steps, writing the given window of the last
+     * step straight into the target image.
+     */
+    private static void scaleImageIncrementally(BufferedImage src, int targetWidth, int targetHeight,
+                                                Region window, BufferedImage target, int targetX, int targetY) {
         boolean hasReassignedSrc = false;
 
         src = normalizeImageType(src);
@@ -462,7 +724,7 @@ public class ImageUtils {
         // For ultra quality should use 7
         int fraction = 2;
 
-        do {
+        while (true) {
             int prevCurrentWidth = currentWidth;
             int prevCurrentHeight = currentHeight;
 
@@ -488,15 +750,23 @@ public class ImageUtils {
             if (prevCurrentWidth == currentWidth && prevCurrentHeight == currentHeight)
                 break;
 
+            // The last step is rendered straight into the target.
+            if (currentWidth == targetWidth && currentHeight == targetHeight) {
+                scaleImageBicubic(src, currentWidth, currentHeight, window, target, targetX, targetY);
+                if (hasReassignedSrc)
+                    ImagePool.getDefault().release(src);
+                return;
+            }
+
             // Render the incremental scaled image.
             BufferedImage incrementalImage = scaleImageBicubic(src, currentWidth, currentHeight);
 
             // Before re-assigning our interim (partially scaled) incrementalImage to be the new src image before we iterate around
-            // again to process it down further, we want to flush() the previous src image IF (and only IF) it was one of our own temporary
+            // again to process it down further, we want to release the previous src image IF (and only IF) it was one of our own temporary
             // BufferedImages created during this incremental down-sampling cycle. If it wasn't one of ours, then it was the original
-            // caller-supplied BufferedImage in which case we don't want to flush() it and just leave it alone.
+            // caller-supplied BufferedImage in which case we don't want to release it and just leave it alone.
             if (hasReassignedSrc)
-                src.flush();
+                ImagePool.getDefault().release(src);
 
             // Now treat our incremental partially scaled image as the src image
             // and cycle through our loop again to do another incremental scaling of it (if necessary).
@@ -505,9 +775,11 @@ public class ImageUtils {
             // Keep track of us re-assigning the original caller-supplied source image with one of our interim BufferedImages
             // so we know when to explicitly flush the interim "src" on the next cycle through.
             hasReassignedSrc = true;
-        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+        }
 
-        return src;
+        TiledCanvas.paste(target, cropImage(src, window), targetX, targetY);
+        if (hasReassignedSrc)
+            ImagePool.getDefault().release(src);
     }
 
     public static BufferedImage cropImage(Logger logger, BufferedImage image,
@@ -516,10 +788,15 @@ public class ImageUtils {
     }
 
     /**
-     * Removes a given region from the image.
+     * Removes a given region from the image, without copying the pixels.
+     * The cropped image is a view which shares its pixels with the given
+     * image (once it is of type {@link #REQUIRED_IMAGE_TYPE}), so cropping a
+     * cropped image doesn't copy anything either. The cropped image should
+     * only be read: use {@link #copyIfView} to get an image which can be
+     * modified, or which doesn't keep the whole image in memory.
      * @param image        The image to crop.
      * @param regionToCrop The region to crop from the image.
-     * @return A new image without the cropped region.
+     * @return An image without the cropped region.
      */
     public static BufferedImage cropImage(BufferedImage image, Region regionToCrop) {
         Region imageRegion = new Region(0, 0, image.getWidth(), image.getHeight());
@@ -528,11 +805,48 @@ public class ImageUtils {
             return image;
         }
 
-        BufferedImage croppedImage = Scalr.crop(image, imageRegion.getLeft(),
+        BufferedImage normalizedImage = normalizeImageType(image);
+        if (imageRegion.getWidth() == image.getWidth()
+                && imageRegion.getHeight() == image.getHeight()) {
+            return normalizedImage;
+        }
+
+        return normalizedImage.getSubimage(imageRegion.getLeft(),
                 imageRegion.getTop(), imageRegion.getWidth(),
                 imageRegion.getHeight());
+    }
 
-        return normalizeImageType(croppedImage);
+    /**
+     * Returns an image which doesn't share its pixels with another image.
+     * @param image The image, which may be a view of a larger image (e.g.,
+     *              the result of {@link #cropImage}).
+     * @return A copy of {@code image} if it is a view, or {@code image}
+     * itself otherwise.
+     */
+    public static BufferedImage copyIfView(BufferedImage image) {
+        ArgumentGuard.notNull(image, "image");
+        if (image.getRaster().getParent() == null) {
+            return image;
+        }
+        return copyPixels(image);
+    }
+
+    /**
+     * Copies an image into a new image of type {@link #REQUIRED_IMAGE_TYPE}.
+     * Images of the required layout are copied row by row.
+     */
+    private static BufferedImage copyPixels(BufferedImage image) {
+        BufferedImage copy = ImagePool.getDefault().acquire(image.getWidth(),
+                image.getHeight());
+        if (image.getType() == REQUIRED_IMAGE_TYPE || TiledCanvas.isCanvas(image)) {
+            WritableRaster raster = copy.getRaster();
+            raster.setDataElements(0, 0, image.getRaster());
+        } else {
+            Graphics2D g2 = copy.createGraphics();
+            g2.drawRenderedImage(image, null);
+            g2.dispose();
+        }
+        return copy;
     }
 
     /**
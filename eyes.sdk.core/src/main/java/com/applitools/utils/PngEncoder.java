@@ -0,0 +1,581 @@
+/*
+ * Applitools software.
+ */
+package com.applitools.utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes images as 8 bit RGB or RGBA PNGs.
+ * <p>
+ * The image is split into horizontal stripes, which are filtered and
+ * deflated on multiple threads. Each stripe is compressed into a deflate
+ * segment ending on a byte boundary, so the concatenated segments form a
+ * single standard zlib stream, written as one IDAT chunk per stripe.
+ * The output only depends on the image and the compression level.
+ */
+public class PngEncoder {
+
+    private static final byte[] PNG_SIGNATURE =
+            {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private static final byte COLOR_TYPE_RGB = 2;
+    private static final byte COLOR_TYPE_RGBA = 6;
+
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_SUB = 1;
+    private static final int FILTER_UP = 2;
+    private static final int FILTER_AVERAGE = 3;
+    private static final int FILTER_PAETH = 4;
+
+    // Levels from this one on choose the filter of each row adaptively.
+    private static final int MIN_ADAPTIVE_FILTER_LEVEL = 4;
+
+    private static final int PIXELS_PER_STRIPE = 512 * 1024;
+    private static final int ADLER_BASE = 65521;
+
+    private static final int ENCODER_THREADS_COUNT =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final int INITIAL_OUTPUT_SIZE = 64 * 1024;
+
+    // Output buffers which grew larger than this aren't kept between
+    // stripes, so a single huge image doesn't pin its buffer for good.
+    private static final int MAX_RETAINED_OUTPUT_SIZE = 4 * 1024 * 1024;
+
+    private static final ExecutorService encoderExecutor =
+            Executors.newFixedThreadPool(ENCODER_THREADS_COUNT,
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            EncoderThread thread = new EncoderThread(runnable);
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+
+    /**
+     * A compressed stripe, with the checksum of its uncompressed bytes.
+     */
+    private static class CompressedStripe {
+        private final byte[] bytes;
+        private final long adler;
+        private final long uncompressedLength;
+
+        private CompressedStripe(byte[] bytes, long adler,
+                                 long uncompressedLength) {
+            this.bytes = bytes;
+            this.adler = adler;
+            this.uncompressedLength = uncompressedLength;
+        }
+    }
+
+    /**
+     * The buffers used by a single thread for encoding a stripe.
+     */
+    private static class StripeScratch {
+        private byte[] previousRow = new byte[0];
+        private byte[] currentRow = new byte[0];
+        private byte[][] filteredRows = new byte[5][0];
+        private byte[] output = new byte[INITIAL_OUTPUT_SIZE];
+        private int[] argbRow = new int[0];
+        private final long[] filterSums = new long[5];
+        private final Adler32 adler = new Adler32();
+        private Deflater deflater;
+        private int deflaterLevel;
+
+        private void ensureRowLength(int rowLength, int width) {
+            if (currentRow.length < rowLength) {
+                previousRow = new byte[rowLength];
+                currentRow = new byte[rowLength];
+                for (int filter = 0; filter < filteredRows.length; ++filter) {
+                    filteredRows[filter] = new byte[rowLength + 1];
+                }
+            }
+            if (argbRow.length < width) {
+                argbRow = new int[width];
+            }
+        }
+
+        private Deflater getDeflater(int compressionLevel) {
+            if (deflater == null || deflaterLevel != compressionLevel) {
+                if (deflater != null) {
+                    deflater.end();
+                }
+                deflater = new Deflater(compressionLevel, true);
+                deflaterLevel = compressionLevel;
+            }
+            deflater.reset();
+            return deflater;
+        }
+
+        /**
+         * Drops the output buffer if it grew too large to be kept.
+         */
+        private void trim() {
+            if (output.length > MAX_RETAINED_OUTPUT_SIZE) {
+                output = new byte[INITIAL_OUTPUT_SIZE];
+            }
+        }
+
+        /**
+         * Releases the deflater, once the scratch won't be used again.
+         */
+        private void end() {
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+            }
+        }
+    }
+
+    /**
+     * A thread of the encoder pool, which reuses its row buffers and
+     * deflater between stripes. Other threads (i.e., the callers) use fresh
+     * ones, so they don't hold on to them once they are done encoding.
+     */
+    private static class EncoderThread extends Thread {
+        private final StripeScratch scratch = new StripeScratch();
+
+        private EncoderThread(Runnable runnable) {
+            super(runnable, "PngEncoder");
+        }
+    }
+
+    private final BufferedImage image;
+    private final int compressionLevel;
+    private final int width;
+    private final int height;
+    private final boolean hasAlpha;
+    private final int bytesPerPixel;
+
+    // The byte layout of (A)BGR images, which are read directly. Canvases
+    // are read row by row from their tiles, and other images are read
+    // through getRGB.
+    private final byte[] data;
+    private final int baseOffset;
+    private final int scanlineStride;
+    private final boolean isCanvas;
+
+    private PngEncoder(BufferedImage image, int compressionLevel) {
+        this.image = image;
+        this.compressionLevel = compressionLevel;
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.hasAlpha = image.getColorModel().hasAlpha();
+        this.bytesPerPixel = hasAlpha ? 4 : 3;
+        this.isCanvas = TiledCanvas.isCanvas(image);
+
+        if (image.getType() == BufferedImage.TYPE_4BYTE_ABGR
+                || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            Raster raster = image.getRaster();
+            ComponentSampleModel sampleModel =
+                    (ComponentSampleModel) raster.getSampleModel();
+            DataBuffer dataBuffer = raster.getDataBuffer();
+            data = ((DataBufferByte) dataBuffer).getData();
+            scanlineStride = sampleModel.getScanlineStride();
+            baseOffset = dataBuffer.getOffset()
+                    - raster.getSampleModelTranslateY() * scanlineStride
+                    - raster.getSampleModelTranslateX()
+                    * sampleModel.getPixelStride();
+        } else {
+            data = null;
+            baseOffset = 0;
+            scanlineStride = 0;
+        }
+    }
+
+    /**
+     * Encodes an image as PNG.
+     * @param image            The image to encode. Views of a larger image
+     *                         are supported.
+     * @param stream           The stream to write the PNG to. It isn't
+     *                         closed.
+     * @param compressionLevel The deflate compression level, between
+     *                         {@link Deflater#BEST_SPEED} and
+     *                         {@link Deflater#BEST_COMPRESSION}, or
+     *                         {@link Deflater#DEFAULT_COMPRESSION}.
+     * @throws IOException If there was a problem writing to the stream.
+     */
+    public static void encode(BufferedImage image, OutputStream stream,
+                              int compressionLevel) throws IOException {
+        ArgumentGuard.notNull(image, "image");
+        ArgumentGuard.notNull(stream, "stream");
+        new PngEncoder(image, compressionLevel).write(stream);
+    }
+
+    private void write(OutputStream stream) throws IOException {
+        int rowsPerStripe = Math.max(1, PIXELS_PER_STRIPE / width);
+        int stripesCount = (height + rowsPerStripe - 1) / rowsPerStripe;
+
+        List<Future<CompressedStripe>> stripeFutures = new ArrayList<>();
+        for (int stripe = 1; stripe < stripesCount; ++stripe) {
+            final int firstRow = stripe * rowsPerStripe;
+            final int lastRow = Math.min(height, firstRow + rowsPerStripe);
+            final boolean isLast = stripe == stripesCount - 1;
+            stripeFutures.add(encoderExecutor.submit(
+                    new Callable<CompressedStripe>() {
+                        @Override
+                        public CompressedStripe call() {
+                            return compressStripe(firstRow, lastRow, isLast);
+                        }
+                    }));
+        }
+
+        stream.write(PNG_SIGNATURE);
+        writeChunk(stream, "IHDR", createHeader());
+
+        // The first stripe is compressed on the calling thread, and starts
+        // with the zlib header.
+        CompressedStripe stripe = compressStripe(0,
+                Math.min(height, rowsPerStripe), stripesCount == 1);
+        long adler = stripe.adler;
+        byte[] zlibHeader = {0x78, getZlibLevelFlags()};
+        writeChunk(stream, "IDAT", zlibHeader, stripe.bytes);
+
+        try {
+            for (Future<CompressedStripe> stripeFuture : stripeFutures) {
+                stripe = stripeFuture.get();
+                adler = combineAdler(adler, stripe.adler,
+                        stripe.uncompressedLength);
+                writeChunk(stream, "IDAT", stripe.bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    "Interrupted while encoding the image");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Failed encoding the image", e.getCause());
+        }
+
+        byte[] zlibTrailer = {(byte) (adler >>> 24), (byte) (adler >>> 16),
+                (byte) (adler >>> 8), (byte) adler};
+        writeChunk(stream, "IDAT", zlibTrailer);
+        writeChunk(stream, "IEND");
+        stream.flush();
+    }
+
+    private byte[] createHeader() {
+        return new byte[]{
+                (byte) (width >>> 24), (byte) (width >>> 16),
+                (byte) (width >>> 8), (byte) width,
+                (byte) (height >>> 24), (byte) (height >>> 16),
+                (byte) (height >>> 8), (byte) height,
+                8, // Bit depth
+                hasAlpha ? COLOR_TYPE_RGBA : COLOR_TYPE_RGB,
+                0, // Deflate compression
+                0, // Adaptive filtering
+                0  // No interlace
+        };
+    }
+
+    /**
+     * @return The second byte of the zlib header, which states the
+     * compression level and makes the header a multiple of 31.
+     */
+    private byte getZlibLevelFlags() {
+        int levelFlags;
+        if (compressionLevel == Deflater.DEFAULT_COMPRESSION) {
+            levelFlags = 2;
+        } else if (compressionLevel < 2) {
+            levelFlags = 0;
+        } else if (compressionLevel < 6) {
+            levelFlags = 1;
+        } else if (compressionLevel == 6) {
+            levelFlags = 2;
+        } else {
+            levelFlags = 3;
+        }
+        int header = (0x78 << 8) | (levelFlags << 6);
+        return (byte) (header + (31 - header % 31) % 31);
+    }
+
+    private static void writeChunk(OutputStream stream, String type,
+                                   byte[]... parts) throws IOException {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] typeBytes = type.getBytes("US-ASCII");
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        for (byte[] part : parts) {
+            crc.update(part);
+        }
+
+        writeInt(stream, length);
+        stream.write(typeBytes);
+        for (byte[] part : parts) {
+            stream.write(part);
+        }
+        writeInt(stream, (int) crc.getValue());
+    }
+
+    private static void writeInt(OutputStream stream, int value)
+            throws IOException {
+        stream.write(value >>> 24);
+        stream.write(value >>> 16);
+        stream.write(value >>> 8);
+        stream.write(value);
+    }
+
+    /**
+     * @return The Adler-32 checksum of the concatenation of two byte
+     * sequences, given the checksum of each of them.
+     */
+    private static long combineAdler(long adler1, long adler2, long length2) {
+        long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (remainder * sum1) % ADLER_BASE;
+        sum1 += (adler2 & 0xffff) + ADLER_BASE - 1;
+        sum2 += (adler1 >>> 16) + (adler2 >>> 16) + ADLER_BASE - remainder;
+        sum1 %= ADLER_BASE;
+        sum2 %= ADLER_BASE;
+        return (sum2 << 16) | sum1;
+    }
+
+    /**
+     * Filters and compresses the rows of a stripe.
+     * @param isLast Whether the stripe ends the deflate stream.
+     */
+    private CompressedStripe compressStripe(int firstRow, int lastRow,
+                                            boolean isLast) {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread instanceof EncoderThread) {
+            StripeScratch scratch = ((EncoderThread) currentThread).scratch;
+            try {
+                return compressStripe(scratch, firstRow, lastRow, isLast);
+            } finally {
+                scratch.trim();
+            }
+        }
+
+        StripeScratch scratch = new StripeScratch();
+        try {
+            return compressStripe(scratch, firstRow, lastRow, isLast);
+        } finally {
+            scratch.end();
+        }
+    }
+
+    private CompressedStripe compressStripe(StripeScratch scratch,
+                                            int firstRow, int lastRow,
+                                            boolean isLast) {
+        int rowLength = width * bytesPerPixel;
+        scratch.ensureRowLength(rowLength, width);
+        Deflater deflater = scratch.getDeflater(compressionLevel);
+        scratch.adler.reset();
+
+        // Filters refer to the row above, which may belong to the
+        // previous stripe.
+        if (firstRow > 0) {
+            readRow(firstRow - 1, scratch.previousRow, scratch);
+        } else {
+            Arrays.fill(scratch.previousRow, 0, rowLength, (byte) 0);
+        }
+
+        int outputSize = 0;
+        for (int y = firstRow; y < lastRow; ++y) {
+            readRow(y, scratch.currentRow, scratch);
+            byte[] filteredRow = filterRow(scratch, rowLength);
+            scratch.adler.update(filteredRow, 0, rowLength + 1);
+            deflater.setInput(filteredRow, 0, rowLength + 1);
+            outputSize = deflate(deflater, scratch, outputSize,
+                    Deflater.NO_FLUSH);
+
+            byte[] previousRow = scratch.previousRow;
+            scratch.previousRow = scratch.currentRow;
+            scratch.currentRow = previousRow;
+        }
+
+        if (isLast) {
+            deflater.finish();
+            outputSize = deflate(deflater, scratch, outputSize,
+                    Deflater.NO_FLUSH);
+        } else {
+            outputSize = deflate(deflater, scratch, outputSize,
+                    Deflater.SYNC_FLUSH);
+        }
+
+        return new CompressedStripe(
+                Arrays.copyOf(scratch.output, outputSize),
+                scratch.adler.getValue(),
+                (long) (lastRow - firstRow) * (rowLength + 1));
+    }
+
+    /**
+     * Deflates all the input given to the deflater.
+     * @return The updated size of the output.
+     */
+    private static int deflate(Deflater deflater, StripeScratch scratch,
+                               int outputSize, int flush) {
+        while (true) {
+            if (scratch.output.length - outputSize < 8 * 1024) {
+                scratch.output = Arrays.copyOf(scratch.output,
+                        scratch.output.length * 2);
+            }
+            int free = scratch.output.length - outputSize;
+            int count = deflater.deflate(scratch.output, outputSize, free,
+                    flush);
+            outputSize += count;
+            if (deflater.finished()
+                    || (count < free && deflater.needsInput())) {
+                return outputSize;
+            }
+        }
+    }
+
+    /**
+     * Reads a row of the image as RGB(A) bytes.
+     */
+    private void readRow(int y, byte[] row, StripeScratch scratch) {
+        if (isCanvas) {
+            // ABGR to RGBA, in place
+            TiledCanvas.readRow(image, 0, y, width, row);
+            for (int i = 0; i < width * 4; i += 4) {
+                byte alpha = row[i];
+                byte blue = row[i + 1];
+                row[i] = row[i + 3];
+                row[i + 1] = row[i + 2];
+                row[i + 2] = blue;
+                row[i + 3] = alpha;
+            }
+            return;
+        }
+
+        if (data != null) {
+            int offset = baseOffset + y * scanlineStride;
+            int i = 0;
+            if (hasAlpha) {
+                // ABGR to RGBA
+                for (int x = 0; x < width; ++x, offset += 4) {
+                    row[i++] = data[offset + 3];
+                    row[i++] = data[offset + 2];
+                    row[i++] = data[offset + 1];
+                    row[i++] = data[offset];
+                }
+            } else {
+                // BGR to RGB
+                for (int x = 0; x < width; ++x, offset += 3) {
+                    row[i++] = data[offset + 2];
+                    row[i++] = data[offset + 1];
+                    row[i++] = data[offset];
+                }
+            }
+            return;
+        }
+
+        int[] argbRow = scratch.argbRow;
+        image.getRGB(0, y, width, 1, argbRow, 0, width);
+        int i = 0;
+        for (int x = 0; x < width; ++x) {
+            int argb = argbRow[x];
+            row[i++] = (byte) (argb >>> 16);
+            row[i++] = (byte) (argb >>> 8);
+            row[i++] = (byte) argb;
+            if (hasAlpha) {
+                row[i++] = (byte) (argb >>> 24);
+            }
+        }
+    }
+
+    /**
+     * Filters the current row. Fast levels use the Sub filter, which suits
+     * the flat areas of screenshots. Other levels choose the filter with the
+     * smallest sum of absolute values, as recommended by the PNG
+     * specification.
+     * @return The filter type byte followed by the filtered row.
+     */
+    private byte[] filterRow(StripeScratch scratch, int rowLength) {
+        byte[] current = scratch.currentRow;
+        byte[] previous = scratch.previousRow;
+        byte[][] filtered = scratch.filteredRows;
+        int bpp = bytesPerPixel;
+
+        boolean isAdaptive = compressionLevel == Deflater.DEFAULT_COMPRESSION
+                || compressionLevel >= MIN_ADAPTIVE_FILTER_LEVEL;
+        if (!isAdaptive) {
+            byte[] sub = filtered[FILTER_SUB];
+            sub[0] = FILTER_SUB;
+            for (int i = 0; i < rowLength; ++i) {
+                int left = i >= bpp ? current[i - bpp] : 0;
+                sub[i + 1] = (byte) (current[i] - left);
+            }
+            return sub;
+        }
+
+        for (int filter = FILTER_NONE; filter <= FILTER_PAETH; ++filter) {
+            filtered[filter][0] = (byte) filter;
+        }
+        long[] sums = scratch.filterSums;
+        Arrays.fill(sums, 0);
+        for (int i = 0; i < rowLength; ++i) {
+            int value = current[i] & 0xff;
+            int left = i >= bpp ? current[i - bpp] & 0xff : 0;
+            int up = previous[i] & 0xff;
+            int upLeft = i >= bpp ? previous[i - bpp] & 0xff : 0;
+
+            byte none = (byte) value;
+            byte sub = (byte) (value - left);
+            byte upFiltered = (byte) (value - up);
+            byte average = (byte) (value - ((left + up) >>> 1));
+            byte paeth = (byte) (value - paethPredictor(left, up, upLeft));
+
+            filtered[FILTER_NONE][i + 1] = none;
+            filtered[FILTER_SUB][i + 1] = sub;
+            filtered[FILTER_UP][i + 1] = upFiltered;
+            filtered[FILTER_AVERAGE][i + 1] = average;
+            filtered[FILTER_PAETH][i + 1] = paeth;
+
+            sums[FILTER_NONE] += Math.abs(none);
+            sums[FILTER_SUB] += Math.abs(sub);
+            sums[FILTER_UP] += Math.abs(upFiltered);
+            sums[FILTER_AVERAGE] += Math.abs(average);
+            sums[FILTER_PAETH] += Math.abs(paeth);
+        }
+
+        int bestFilter = FILTER_NONE;
+        for (int filter = FILTER_SUB; filter <= FILTER_PAETH; ++filter) {
+            if (sums[filter] < sums[bestFilter]) {
+                bestFilter = filter;
+            }
+        }
+        return filtered[bestFilter];
+    }
+
+    private static int paethPredictor(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int leftDistance = Math.abs(estimate - left);
+        int upDistance = Math.abs(estimate - up);
+        int upLeftDistance = Math.abs(estimate - upLeft);
+        if (leftDistance <= upDistance && leftDistance <= upLeftDistance) {
+            return left;
+        }
+        if (upDistance <= upLeftDistance) {
+            return up;
+        }
+        return upLeft;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Applitools software.
+ */
+package com.applitools.utils;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The header of a PNG image, read without decoding its pixels.
+ * <p>
+ * Reading a header only parses the IHDR chunk at the start of the stream.
+ * Optionally, the checksums of all the chunks are validated as well, which
+ * is still much cheaper than inflating the pixel data.
+ */
+public class PngHeader {
+
+    public static final int COLOR_TYPE_GRAYSCALE = 0;
+    public static final int COLOR_TYPE_TRUECOLOR = 2;
+    public static final int COLOR_TYPE_INDEXED = 3;
+    public static final int COLOR_TYPE_GRAYSCALE_ALPHA = 4;
+    public static final int COLOR_TYPE_TRUECOLOR_ALPHA = 6;
+
+    private static final byte[] SIGNATURE = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    // The signature, and the IHDR chunk with its 13 bytes of data.
+    private static final int HEADER_LENGTH = 8 + 12 + 13;
+
+    private static final int IHDR = chunkType("IHDR");
+    private static final int IDAT = chunkType("IDAT");
+    private static final int IEND = chunkType("IEND");
+
+    // Ancillary chunks which don't change how the pixels are displayed.
+    private static final int[] PLAIN_ANCILLARY_CHUNKS = {
+            chunkType("tEXt"), chunkType("zTXt"), chunkType("iTXt"),
+            chunkType("tIME"), chunkType("pHYs")};
+
+    private final int width;
+    private final int height;
+    private final int bitDepth;
+    private final int colorType;
+    private final boolean isInterlaced;
+    private final boolean isPlainTrueColor;
+
+    private PngHeader(int width, int height, int bitDepth, int colorType,
+                      boolean isInterlaced, boolean isPlainTrueColor) {
+        this.width = width;
+        this.height = height;
+        this.bitDepth = bitDepth;
+        this.colorType = colorType;
+        this.isInterlaced = isInterlaced;
+        this.isPlainTrueColor = isPlainTrueColor;
+    }
+
+    /**
+     * See {@link #read(byte[], boolean)}.
+     * {@code validateChecksums} defaults to {@code false}.
+     */
+    public static PngHeader read(byte[] imageBytes) {
+        return read(imageBytes, false);
+    }
+
+    /**
+     * Reads the header of a PNG image.
+     * @param imageBytes        The encoded image.
+     * @param validateChecksums Whether to validate the checksums of all the
+     *                          chunks, and that the stream isn't truncated.
+     *                          Otherwise, only the header's checksum is
+     *                          validated.
+     * @return The header, or {@code null} if the image isn't a well formed
+     * PNG image.
+     */
+    public static PngHeader read(byte[] imageBytes, boolean validateChecksums) {
+        ArgumentGuard.notNull(imageBytes, "imageBytes");
+        if (imageBytes.length < HEADER_LENGTH
+                || !Arrays.equals(Arrays.copyOf(imageBytes, SIGNATURE.length), SIGNATURE)
+                || readInt(imageBytes, 8) != 13
+                || readInt(imageBytes, 12) != IHDR
+                || !isChecksumValid(imageBytes, 8, 13)) {
+            return null;
+        }
+
+        int width = readInt(imageBytes, 16);
+        int height = readInt(imageBytes, 20);
+        int bitDepth = imageBytes[24] & 0xff;
+        int colorType = imageBytes[25] & 0xff;
+        int compressionMethod = imageBytes[26] & 0xff;
+        int filterMethod = imageBytes[27] & 0xff;
+        int interlaceMethod = imageBytes[28] & 0xff;
+        if (width <= 0 || height <= 0 || !isValidBitDepth(colorType, bitDepth)
+                || compressionMethod != 0 || filterMethod != 0
+                || interlaceMethod > 1) {
+            return null;
+        }
+
+        boolean isPlainTrueColor = false;
+        if (validateChecksums) {
+            boolean hasPlainChunks = true;
+            boolean hasData = false;
+            boolean hasEnd = false;
+            int offset = 8;
+            while (!hasEnd) {
+                if (imageBytes.length - offset < 12) {
+                    return null;
+                }
+                int length = readInt(imageBytes, offset);
+                if (length < 0 || imageBytes.length - offset - 12 < length
+                        || !isChecksumValid(imageBytes, offset, length)) {
+                    return null;
+                }
+
+                int type = readInt(imageBytes, offset + 4);
+                hasData |= type == IDAT;
+                hasEnd = type == IEND;
+                hasPlainChunks &= type == IHDR || type == IDAT || type == IEND
+                        || isPlainAncillaryChunk(type);
+                offset += 12 + length;
+            }
+            if (!hasData) {
+                return null;
+            }
+
+            isPlainTrueColor = hasPlainChunks && bitDepth == 8
+                    && (colorType == COLOR_TYPE_TRUECOLOR
+                    || colorType == COLOR_TYPE_TRUECOLOR_ALPHA);
+        }
+
+        return new PngHeader(width, height, bitDepth, colorType,
+                interlaceMethod == 1, isPlainTrueColor);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return The number of bits per sample, or per palette index.
+     */
+    public int getBitDepth() {
+        return bitDepth;
+    }
+
+    /**
+     * @return One of the {@code COLOR_TYPE_*} constants.
+     */
+    public int getColorType() {
+        return colorType;
+    }
+
+    public boolean isInterlaced() {
+        return isInterlaced;
+    }
+
+    /**
+     * @return Whether the image has 8 bit RGB or RGBA pixels, and no chunks
+     * which change how they are displayed (e.g., gamma, color profile or
+     * transparency chunks), so any decoder decodes it to the same pixels.
+     * This is only known for headers read with validated checksums, and is
+     * {@code false} otherwise.
+     */
+    public boolean isPlainTrueColor() {
+        return isPlainTrueColor;
+    }
+
+    @Override
+    public String toString() {
+        return "PngHeader{width=" + width + ", height=" + height
+                + ", bitDepth=" + bitDepth + ", colorType=" + colorType
+                + ", isInterlaced=" + isInterlaced + "}";
+    }
+
+    private static boolean isValidBitDepth(int colorType, int bitDepth) {
+        switch (colorType) {
+            case COLOR_TYPE_GRAYSCALE:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4
+                        || bitDepth == 8 || bitDepth == 16;
+            case COLOR_TYPE_INDEXED:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4
+                        || bitDepth == 8;
+            case COLOR_TYPE_TRUECOLOR:
+            case COLOR_TYPE_GRAYSCALE_ALPHA:
+            case COLOR_TYPE_TRUECOLOR_ALPHA:
+                return bitDepth == 8 || bitDepth == 16;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isPlainAncillaryChunk(int type) {
+        for (int plainType : PLAIN_ANCILLARY_CHUNKS) {
+            if (type == plainType) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Validates the checksum of the chunk at the given offset, which covers
+     * its type and data.
+     */
+    private static boolean isChecksumValid(byte[] imageBytes, int offset,
+                                           int length) {
+        CRC32 crc = new CRC32();
+        crc.update(imageBytes, offset + 4, 4 + length);
+        return (int) crc.getValue() == readInt(imageBytes, offset + 8 + length);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16
+                | (bytes[offset + 2] & 0xff) << 8 | (bytes[offset + 3] & 0xff);
+    }
+
+    private static int chunkType(String type) {
+        return type.charAt(0) << 24 | type.charAt(1) << 16
+                | type.charAt(2) << 8 | type.charAt(3);
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Applitools software.
+ */
+package com.applitools.utils;
+
+import com.applitools.eyes.Region;
+
+import java.awt.Point;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Very large images, whose pixels are kept in memory-mapped temporary files
+ * rather than on the heap.
+ * <p>
+ * A canvas is a regular {@link BufferedImage} with the (A)BGR byte layout
+ * of {@link BufferedImage#TYPE_4BYTE_ABGR}, but its pixels are stored in
+ * tiles of a temporary file, which are mapped to memory and paged in and
+ * out by the operating system. Stitching writes the parts into it tile by
+ * tile, and {@link PngEncoder} reads it out row by row, so the full raster
+ * is never materialized on the heap. Its image type is
+ * {@link BufferedImage#TYPE_CUSTOM}, so pixel by pixel access through the
+ * {@code BufferedImage} API works, but is slow.
+ * <p>
+ * The temporary file is deleted as soon as it is mapped (where the file
+ * system allows it), and its space is reclaimed once the image is garbage
+ * collected.
+ */
+public class TiledCanvas {
+
+    /**
+     * Images up to this number of pixels are kept on the heap when stitched.
+     */
+    public static final long MAX_HEAP_PIXELS = 32L * 1024 * 1024;
+
+    private static final int TILE_SHIFT = 24;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private static final ColorModel ABGR_COLOR_MODEL = new ComponentColorModel(
+            ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[]{8, 8, 8, 8},
+            true, false, Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
+    private static final int[] ABGR_BAND_OFFSETS = {3, 2, 1, 0};
+
+    /**
+     * The pixel bytes of a canvas, stored in memory-mapped tiles.
+     */
+    static class TiledDataBuffer extends DataBuffer {
+        private final ByteBuffer[] tiles;
+
+        private TiledDataBuffer(ByteBuffer[] tiles, int size) {
+            super(DataBuffer.TYPE_BYTE, size);
+            this.tiles = tiles;
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            return tiles[i >>> TILE_SHIFT].get(i & TILE_MASK) & 0xff;
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            tiles[i >>> TILE_SHIFT].put(i & TILE_MASK, (byte) val);
+        }
+
+        /**
+         * Copies consecutive bytes out of the buffer.
+         */
+        void getElements(int index, byte[] destination, int offset,
+                         int length) {
+            while (length > 0) {
+                // Tiles are duplicated, so concurrent readers don't share
+                // their positions.
+                ByteBuffer tile = tiles[index >>> TILE_SHIFT].duplicate();
+                int position = index & TILE_MASK;
+                int count = Math.min(length, TILE_SIZE - position);
+                tile.position(position);
+                tile.get(destination, offset, count);
+                index += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        /**
+         * Copies consecutive bytes into the buffer.
+         */
+        void setElements(int index, byte[] source, int offset, int length) {
+            while (length > 0) {
+                ByteBuffer tile = tiles[index >>> TILE_SHIFT].duplicate();
+                int position = index & TILE_MASK;
+                int count = Math.min(length, TILE_SIZE - position);
+                tile.position(position);
+                tile.put(source, offset, count);
+                index += count;
+                offset += count;
+                length -= count;
+            }
+        }
+    }
+
+    /**
+     * Creates a transparent black canvas.
+     * @param width  The width of the canvas.
+     * @param height The height of the canvas.
+     * @return The canvas.
+     * @throws IOException If the temporary file couldn't be created or mapped.
+     */
+    public static BufferedImage create(int width, int height)
+            throws IOException {
+        ArgumentGuard.greaterThanZero(width, "width");
+        ArgumentGuard.greaterThanZero(height, "height");
+        long size = (long) width * height * 4;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Canvas is too large: " + width + "x" + height);
+        }
+
+        ByteBuffer[] tiles = new ByteBuffer[(int) ((size + TILE_SIZE - 1) >>> TILE_SHIFT)];
+        File file = File.createTempFile("applitools-canvas-", ".raw");
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.setLength(size);
+                FileChannel channel = randomAccessFile.getChannel();
+                for (int tile = 0; tile < tiles.length; ++tile) {
+                    long position = (long) tile << TILE_SHIFT;
+                    MappedByteBuffer buffer = channel.map(
+                            FileChannel.MapMode.READ_WRITE, position,
+                            Math.min(TILE_SIZE, size - position));
+                    tiles[tile] = buffer;
+                }
+            } finally {
+                // Mapped tiles stay valid after the channel is closed.
+                randomAccessFile.close();
+            }
+        } finally {
+            if (!file.delete()) {
+                // Files which are mapped can't be deleted on some platforms
+                file.deleteOnExit();
+            }
+        }
+
+        return createImage(new TiledDataBuffer(tiles, (int) size), width,
+                height);
+    }
+
+    /**
+     * Creates a transparent black image to stitch parts into. Images with
+     * more than {@link #MAX_HEAP_PIXELS} pixels are created as canvases,
+     * unless the canvas can't be created.
+     * @param width  The width of the image.
+     * @param height The height of the image.
+     * @return A canvas, or an image of type
+     * {@link BufferedImage#TYPE_4BYTE_ABGR}.
+     */
+    public static BufferedImage createForStitching(int width, int height) {
+        if ((long) width * height > MAX_HEAP_PIXELS) {
+            try {
+                return create(width, height);
+            } catch (IOException ignored) {
+                // Fall back to the heap
+            }
+        }
+        return ImagePool.getDefault().acquire(width, height);
+    }
+
+    /**
+     * @param image The image to check.
+     * @return Whether the image is a canvas, or a view of one.
+     */
+    public static boolean isCanvas(BufferedImage image) {
+        return image != null
+                && image.getRaster().getDataBuffer() instanceof TiledDataBuffer;
+    }
+
+    /**
+     * Copies an image into another image, clipping it to the target's
+     * bounds. Canvases are written row by row.
+     * @param target The image to copy into.
+     * @param image  The image to copy.
+     * @param x      The X coordinate to copy the image to.
+     * @param y      The Y coordinate to copy the image to.
+     */
+    public static void paste(BufferedImage target, BufferedImage image,
+                             int x, int y) {
+        ArgumentGuard.notNull(target, "target");
+        ArgumentGuard.notNull(image, "image");
+        if (!isCanvas(target)) {
+            target.getRaster().setRect(x, y, image.getRaster());
+            return;
+        }
+
+        Region pasteRegion = new Region(0, 0, target.getWidth(), target.getHeight());
+        pasteRegion.intersect(new Region(x, y, image.getWidth(), image.getHeight()));
+        if (pasteRegion.isSizeEmpty()) {
+            return;
+        }
+
+        WritableRaster targetRaster = target.getRaster();
+        TiledDataBuffer targetBuffer = (TiledDataBuffer) targetRaster.getDataBuffer();
+        ComponentSampleModel targetModel = (ComponentSampleModel) targetRaster.getSampleModel();
+        int targetStride = targetModel.getScanlineStride();
+        int targetBase = -targetRaster.getSampleModelTranslateY() * targetStride
+                - targetRaster.getSampleModelTranslateX() * 4;
+
+        int width = pasteRegion.getWidth();
+        int rowLength = width * 4;
+        int left = pasteRegion.getLeft() - x;
+        int top = pasteRegion.getTop() - y;
+        Raster sourceRaster = ImageUtils.normalizeImageType(image).getRaster();
+        if (sourceRaster.getDataBuffer() instanceof DataBufferByte) {
+            // Rows are written straight from the image's pixel array
+            ComponentSampleModel sourceModel = (ComponentSampleModel) sourceRaster.getSampleModel();
+            byte[] data = ((DataBufferByte) sourceRaster.getDataBuffer()).getData();
+            int sourceStride = sourceModel.getScanlineStride();
+            int sourceBase = sourceRaster.getDataBuffer().getOffset()
+                    - sourceRaster.getSampleModelTranslateY() * sourceStride
+                    - sourceRaster.getSampleModelTranslateX() * 4;
+            for (int row = 0; row < pasteRegion.getHeight(); ++row) {
+                targetBuffer.setElements(
+                        targetBase + (pasteRegion.getTop() + row) * targetStride + pasteRegion.getLeft() * 4,
+                        data, sourceBase + (top + row) * sourceStride + left * 4, rowLength);
+            }
+        } else {
+            boolean isSourceCanvas = isCanvas(image);
+            byte[] rowBytes = new byte[rowLength];
+            for (int row = 0; row < pasteRegion.getHeight(); ++row) {
+                if (isSourceCanvas) {
+                    readRow(image, left, top + row, width, rowBytes);
+                } else {
+                    sourceRaster.getDataElements(left, top + row, width, 1, rowBytes);
+                }
+                targetBuffer.setElements(
+                        targetBase + (pasteRegion.getTop() + row) * targetStride + pasteRegion.getLeft() * 4,
+                        rowBytes, 0, rowLength);
+            }
+        }
+    }
+
+    /**
+     * Trims an image to its top left part. Canvases are trimmed into a
+     * canvas, without copying them to the heap.
+     * @param image  The image to trim.
+     * @param width  The width of the trimmed image.
+     * @param height The height of the trimmed image.
+     * @return The trimmed image, or {@code image} if it has this size.
+     */
+    public static BufferedImage trim(BufferedImage image, int width,
+                                     int height) {
+        ArgumentGuard.notNull(image, "image");
+        if (image.getWidth() == width && image.getHeight() == height) {
+            return image;
+        }
+        if (!isCanvas(image)) {
+            return ImageUtils.getImagePart(image, new Region(0, 0, width, height));
+        }
+
+        WritableRaster raster = image.getRaster();
+        if (image.getWidth() == width && raster.getParent() == null) {
+            // Dropping rows at the bottom keeps the rows above in place
+            return createImage(raster.getDataBuffer(), width, height);
+        }
+
+        try {
+            BufferedImage trimmedImage = create(width, height);
+            paste(trimmedImage, image.getSubimage(0, 0, width, height), 0, 0);
+            return trimmedImage;
+        } catch (IOException e) {
+            return ImageUtils.getImagePart(image, new Region(0, 0, width, height));
+        }
+    }
+
+    /**
+     * Reads a row segment of a canvas as ABGR bytes.
+     * @param image  The canvas, or a view of one.
+     * @param x      The X coordinate of the segment.
+     * @param y      The Y coordinate of the segment.
+     * @param width  The width of the segment.
+     * @param output The array to read the bytes into, from its start.
+     */
+    static void readRow(BufferedImage image, int x, int y, int width,
+                        byte[] output) {
+        Raster raster = image.getRaster();
+        ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+        int stride = sampleModel.getScanlineStride();
+        int offset = (y - raster.getSampleModelTranslateY()) * stride
+                + (x - raster.getSampleModelTranslateX()) * 4;
+        ((TiledDataBuffer) raster.getDataBuffer()).getElements(offset, output, 0, width * 4);
+    }
+
+    /**
+     * Writes a row segment of ABGR bytes into an image, clipping it to the
+     * image's bounds.
+     * @param image The image to write into, which may be a canvas or a view.
+     * @param x     The X coordinate of the segment.
+     * @param y     The Y coordinate of the segment.
+     * @param row   The bytes to write, from the array's start.
+     * @param width The width of the segment.
+     */
+    static void writeRow(BufferedImage image, int x, int y, byte[] row,
+                         int width) {
+        int offset = 0;
+        if (x < 0) {
+            offset = -x * 4;
+            width += x;
+            x = 0;
+        }
+        width = Math.min(width, image.getWidth() - x);
+        if (y < 0 || y >= image.getHeight() || width <= 0) {
+            return;
+        }
+
+        WritableRaster raster = image.getRaster();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        if (dataBuffer instanceof TiledDataBuffer
+                || (dataBuffer instanceof DataBufferByte
+                && image.getType() == BufferedImage.TYPE_4BYTE_ABGR)) {
+            int stride = ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride();
+            int index = (y - raster.getSampleModelTranslateY()) * stride
+                    + (x - raster.getSampleModelTranslateX()) * 4;
+            if (dataBuffer instanceof TiledDataBuffer) {
+                ((TiledDataBuffer) dataBuffer).setElements(index, row, offset, width * 4);
+            } else {
+                System.arraycopy(row, offset, ((DataBufferByte) dataBuffer).getData(),
+                        dataBuffer.getOffset() + index, width * 4);
+            }
+            return;
+        }
+
+        // Other images are written pixel by pixel, converting the colors.
+        for (int i = 0; i < width; ++i) {
+            int pos = offset + i * 4;
+            image.setRGB(x + i, y, (row[pos] & 0xff) << 24
+                    | (row[pos + 3] & 0xff) << 16
+                    | (row[pos + 2] & 0xff) << 8
+                    | (row[pos + 1] & 0xff));
+        }
+    }
+
+    private static BufferedImage createImage(DataBuffer dataBuffer, int width,
+                                             int height) {
+        PixelInterleavedSampleModel sampleModel = new PixelInterleavedSampleModel(
+                DataBuffer.TYPE_BYTE, width, height, 4, width * 4, ABGR_BAND_OFFSETS);
+        WritableRaster raster = Raster.createWritableRaster(sampleModel,
+                dataBuffer, new Point(0, 0));
+        return new BufferedImage(ABGR_COLOR_MODEL, raster, false, null);
+    }
+}
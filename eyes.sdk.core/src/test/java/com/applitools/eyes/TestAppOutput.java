@@ -0,0 +1,88 @@
+package com.applitools.eyes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestAppOutput {
+
+    @Test
+    public void testDomUrlOfCompletedUpload() throws Exception {
+        FutureTask<String> domUrlFuture = new FutureTask<>(new Callable<String>() {
+            @Override
+            public String call() {
+                return "https://dom/1";
+            }
+        });
+        domUrlFuture.run();
+
+        AppOutput appOutput = new AppOutput("title", null, null, null, null);
+        appOutput.setDomUrlFuture(domUrlFuture, new Logger());
+        Assert.assertEquals(serialize(appOutput).get("domUrl").asText(), "https://dom/1");
+        Assert.assertEquals(appOutput.getDomUrl(), "https://dom/1");
+    }
+
+    @Test
+    public void testMatchGoesOnWithoutFailedUpload() throws Exception {
+        FutureTask<String> domUrlFuture = new FutureTask<>(new Callable<String>() {
+            @Override
+            public String call() {
+                throw new IllegalStateException("Upload failed");
+            }
+        });
+        domUrlFuture.run();
+
+        AppOutput appOutput = new AppOutput("title", null, null, null, null);
+        appOutput.setDomUrlFuture(domUrlFuture, new Logger());
+        JsonNode json = serialize(appOutput);
+        Assert.assertTrue(json.get("domUrl").isNull());
+        Assert.assertEquals(json.get("title").asText(), "title");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMatchGoesOnWithoutTimedOutUpload() throws Exception {
+        Future<String> domUrlFuture = mock(Future.class);
+        when(domUrlFuture.get(anyLong(), any(TimeUnit.class))).thenThrow(new TimeoutException());
+
+        AppOutput appOutput = new AppOutput("title", null, null, null, null);
+        appOutput.setDomUrlFuture(domUrlFuture, new Logger());
+        Assert.assertTrue(serialize(appOutput).get("domUrl").isNull());
+        verify(domUrlFuture).get(AppOutput.DOM_UPLOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        verify(domUrlFuture).cancel(true);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInterruptionIsKept() throws Exception {
+        Future<String> domUrlFuture = mock(Future.class);
+        when(domUrlFuture.get(anyLong(), any(TimeUnit.class))).thenThrow(new InterruptedException());
+
+        AppOutput appOutput = new AppOutput("title", null, null, null, null);
+        appOutput.setDomUrlFuture(domUrlFuture, new Logger());
+        try {
+            Assert.assertNull(appOutput.getDomUrl());
+            Assert.assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            // Clears the interrupt flag
+            Thread.interrupted();
+        }
+    }
+
+    private static JsonNode serialize(AppOutput appOutput) throws Exception {
+        return new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(appOutput));
+    }
+}
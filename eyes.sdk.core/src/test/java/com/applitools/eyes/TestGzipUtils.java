@@ -0,0 +1,50 @@
+package com.applitools.eyes;
+
+import com.applitools.utils.GzipUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+public class TestGzipUtils {
+
+    @Test
+    public void testGzipRoundTrip() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("{\"tagName\":\"DIV\",\"text\":\"\u05e9\u05dc\u05d5\u05dd ").append(i).append("\"},");
+        }
+        String text = builder.toString();
+
+        byte[] compressed = GzipUtils.gzip(text);
+        Assert.assertTrue(compressed.length < text.length());
+
+        Assert.assertEquals(gunzip(compressed), text);
+    }
+
+    @Test
+    public void testSurrogatePairBetweenChunks() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < GzipUtils.BUFFER_SIZE - 1; i++) {
+            builder.append('a');
+        }
+        // The high surrogate ends the first chunk, and the low surrogate starts the next one
+        String text = builder.append("\ud83d\ude00 done").toString();
+        Assert.assertEquals(gunzip(GzipUtils.gzip(text)), text);
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            decompressed.write(buffer, 0, read);
+        }
+        return new String(decompressed.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
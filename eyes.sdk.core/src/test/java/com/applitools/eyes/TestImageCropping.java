@@ -0,0 +1,57 @@
+package com.applitools.eyes;
+
+import com.applitools.eyes.utils.TestUtils;
+import com.applitools.utils.ImageUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+
+public class TestImageCropping {
+
+    @Test
+    public void testCropIsView() {
+        BufferedImage image = TestUtils.createImage(300, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        BufferedImage cropped = ImageUtils.cropImage(image, new Region(10, 20, 250, 150));
+        Assert.assertEquals(cropped.getType(), ImageUtils.REQUIRED_IMAGE_TYPE);
+        Assert.assertSame(cropped.getRaster().getDataBuffer(), image.getRaster().getDataBuffer());
+        TestUtils.assertSameImage(cropped, image.getSubimage(10, 20, 250, 150));
+
+        // A crop of a crop is still a view of the original image
+        BufferedImage croppedTwice = ImageUtils.cropImage(cropped, new Region(5, 7, 100, 300));
+        Assert.assertEquals(croppedTwice.getWidth(), 100);
+        Assert.assertEquals(croppedTwice.getHeight(), 143);
+        Assert.assertSame(croppedTwice.getRaster().getDataBuffer(), image.getRaster().getDataBuffer());
+        TestUtils.assertSameImage(croppedTwice, image.getSubimage(15, 27, 100, 143));
+
+        // Copies don't share pixels with the image
+        BufferedImage copy = ImageUtils.copyIfView(croppedTwice);
+        Assert.assertNotSame(copy.getRaster().getDataBuffer(), image.getRaster().getDataBuffer());
+        TestUtils.assertSameImage(copy, image.getSubimage(15, 27, 100, 143));
+        copy.setRGB(0, 0, 0xff00ff00);
+        Assert.assertEquals(image.getRGB(15, 27), croppedTwice.getRGB(0, 0));
+        Assert.assertNotEquals(image.getRGB(15, 27), 0xff00ff00);
+        Assert.assertSame(ImageUtils.copyIfView(image), image);
+    }
+
+    @Test
+    public void testCropOfOtherTypes() {
+        BufferedImage image = TestUtils.createImage(120, 80, BufferedImage.TYPE_INT_RGB);
+        BufferedImage cropped = ImageUtils.cropImage(image, new Region(100, 60, 50, 50));
+        Assert.assertEquals(cropped.getType(), ImageUtils.REQUIRED_IMAGE_TYPE);
+        Assert.assertEquals(cropped.getWidth(), 20);
+        Assert.assertEquals(cropped.getHeight(), 20);
+        TestUtils.assertSameImage(cropped, image.getSubimage(100, 60, 20, 20));
+    }
+
+    @Test
+    public void testViewsAreScaledAndCopiedLikeImages() {
+        BufferedImage image = TestUtils.createImage(300, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        BufferedImage cropped = ImageUtils.cropImage(image, new Region(33, 21, 151, 97));
+        BufferedImage copy = ImageUtils.copyIfView(cropped);
+        for (double scaleRatio : new double[] {0.5, 1.7}) {
+            TestUtils.assertSameImage(ImageUtils.scaleImage(cropped, scaleRatio), ImageUtils.scaleImage(copy, scaleRatio));
+        }
+        TestUtils.assertSameImage(ImageUtils.getImagePart(image, new Region(33, 21, 151, 97)), image.getSubimage(33, 21, 151, 97));
+    }
+}
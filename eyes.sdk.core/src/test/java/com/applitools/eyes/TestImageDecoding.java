@@ -0,0 +1,68 @@
+package com.applitools.eyes;
+
+import com.applitools.eyes.utils.TestUtils;
+import com.applitools.utils.ImageUtils;
+import org.apache.commons.codec.binary.Base64;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class TestImageDecoding {
+
+    @Test
+    public void testDecodeToRequiredType() throws IOException {
+        for (int imageType : new int[] {BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_INT_RGB}) {
+            BufferedImage image = TestUtils.createImage(67, 45, imageType);
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", stream);
+            byte[] imageBytes = stream.toByteArray();
+
+            BufferedImage fromBytes = ImageUtils.imageFromBytes(imageBytes);
+            Assert.assertEquals(fromBytes.getType(), ImageUtils.REQUIRED_IMAGE_TYPE);
+            TestUtils.assertSameImage(fromBytes, image);
+
+            BufferedImage fromBase64 = ImageUtils.imageFromBase64(Base64.encodeBase64String(imageBytes));
+            Assert.assertEquals(fromBase64.getType(), ImageUtils.REQUIRED_IMAGE_TYPE);
+            TestUtils.assertSameImage(fromBase64, image);
+        }
+    }
+
+    @Test
+    public void testDecodeIntoDestination() {
+        BufferedImage image = TestUtils.createImage(67, 45, BufferedImage.TYPE_4BYTE_ABGR);
+        byte[] imageBytes = ImageUtils.encodeAsPng(image);
+
+        BufferedImage destination = new BufferedImage(image.getWidth(), image.getHeight(), ImageUtils.REQUIRED_IMAGE_TYPE);
+        BufferedImage decoded = ImageUtils.imageFromBytes(imageBytes, destination);
+        Assert.assertSame(decoded, destination);
+        TestUtils.assertSameImage(decoded, image);
+
+        // A destination of a different size is ignored
+        BufferedImage smallDestination = new BufferedImage(10, 10, ImageUtils.REQUIRED_IMAGE_TYPE);
+        decoded = ImageUtils.imageFromBytes(imageBytes, smallDestination);
+        Assert.assertNotSame(decoded, smallDestination);
+        TestUtils.assertSameImage(decoded, image);
+    }
+
+    @Test
+    public void testDecodeWithoutCroppedRows() throws IOException {
+        for (int imageType : new int[] {BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_INT_RGB}) {
+            BufferedImage image = TestUtils.createImage(67, 45, imageType);
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", stream);
+            byte[] imageBytes = stream.toByteArray();
+
+            BufferedImage decoded = ImageUtils.imageFromBytes(imageBytes, 5, 7);
+            Assert.assertEquals(decoded.getType(), ImageUtils.REQUIRED_IMAGE_TYPE);
+            TestUtils.assertSameImage(decoded, image.getSubimage(0, 5, image.getWidth(), image.getHeight() - 12));
+
+            // A crop which doesn't leave any rows is ignored
+            TestUtils.assertSameImage(ImageUtils.imageFromBytes(imageBytes, image.getHeight(), 0), image);
+            TestUtils.assertSameImage(ImageUtils.imageFromBytes(imageBytes, 0, -1), image);
+        }
+    }
+}
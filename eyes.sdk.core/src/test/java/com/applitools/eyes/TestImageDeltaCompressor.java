@@ -0,0 +1,123 @@
+package com.applitools.eyes;
+
+import com.applitools.eyes.utils.TestUtils;
+import com.applitools.utils.ImageDeltaCompressor;
+import com.applitools.utils.ImageUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+public class TestImageDeltaCompressor {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // Large enough to be split into several stripes, with partial blocks at the edges
+        BufferedImage source = createNoiseImage(1205, 903, 0);
+        BufferedImage target = ImageUtils.copyImageWithType(source, BufferedImage.TYPE_4BYTE_ABGR);
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            target.setRGB(random.nextInt(target.getWidth()), random.nextInt(target.getHeight()), 0xff000000 | random.nextInt(0xffffff));
+        }
+        target.setRGB(target.getWidth() - 1, target.getHeight() - 1, 0xffffffff);
+
+        byte[] targetEncoded = ImageUtils.encodeAsPng(target);
+        for (int compressionLevel : new int[] {Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION}) {
+            byte[] delta = ImageDeltaCompressor.compressByRawBlocks(target, targetEncoded, source, "https://storage/1", 10, compressionLevel);
+            Assert.assertTrue(delta.length < targetEncoded.length);
+            TestUtils.assertSameImage(decompress(delta, source, "https://storage/1"), target);
+        }
+    }
+
+    @Test
+    public void testRoundTripOfViews() throws IOException {
+        BufferedImage sourceContainer = createNoiseImage(300, 400, 2);
+        BufferedImage targetContainer = ImageUtils.copyImageWithType(sourceContainer, BufferedImage.TYPE_4BYTE_ABGR);
+        targetContainer.setRGB(120, 150, 0xff00ff00);
+
+        BufferedImage source = sourceContainer.getSubimage(13, 27, 250, 333);
+        BufferedImage target = targetContainer.getSubimage(13, 27, 250, 333);
+        byte[] delta = ImageDeltaCompressor.compressByRawBlocks(target, ImageUtils.encodeAsPng(target), source);
+        TestUtils.assertSameImage(decompress(delta, source, ""), target);
+    }
+
+    @Test
+    public void testIdenticalImages() throws IOException {
+        BufferedImage source = createNoiseImage(100, 100, 3);
+        byte[] delta = ImageDeltaCompressor.compressByRawBlocks(source, ImageUtils.encodeAsPng(source), source);
+        TestUtils.assertSameImage(decompress(delta, source, ""), source);
+    }
+
+    @Test
+    public void testFallbackToEncodedImage() throws IOException {
+        BufferedImage source = createNoiseImage(100, 100, 4);
+        BufferedImage target = createNoiseImage(100, 100, 5);
+        // Noise can't be compressed, so the delta of different images is larger than this encoded image
+        byte[] targetEncoded = ImageUtils.encodeAsPng(target.getSubimage(0, 0, 100, 50));
+        Assert.assertSame(ImageDeltaCompressor.compressByRawBlocks(target, targetEncoded, source), targetEncoded);
+        Assert.assertSame(ImageDeltaCompressor.compressByRawBlocks(target, targetEncoded, createNoiseImage(100, 90, 4)), targetEncoded);
+        Assert.assertSame(ImageDeltaCompressor.compressByRawBlocks(target, targetEncoded, null), targetEncoded);
+    }
+
+    private static BufferedImage createNoiseImage(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xff000000 | random.nextInt(0xffffff));
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Restores the target image from a delta and its source image.
+     */
+    private static BufferedImage decompress(byte[] delta, BufferedImage source, String expectedSourceId) throws IOException {
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(delta));
+        byte[] preamble = new byte["applitools".length()];
+        header.readFully(preamble);
+        Assert.assertEquals(new String(preamble, StandardCharsets.UTF_8), "applitools");
+        Assert.assertEquals(header.readByte(), 3);
+        byte[] sourceId = new byte[header.readShort()];
+        header.readFully(sourceId);
+        Assert.assertEquals(new String(sourceId, StandardCharsets.UTF_8), expectedSourceId);
+        int blockSize = header.readShort();
+
+        BufferedImage result = ImageUtils.copyImageWithType(source, BufferedImage.TYPE_4BYTE_ABGR);
+        int blockColumnsCount = (result.getWidth() + blockSize - 1) / blockSize;
+        DataInputStream blocks = new DataInputStream(new InflaterInputStream(header, new Inflater(true)));
+        int previousChannel = 0;
+        while (true) {
+            int channel;
+            try {
+                channel = blocks.readUnsignedByte();
+            } catch (EOFException e) {
+                break;
+            }
+            Assert.assertTrue(channel >= previousChannel && channel < 3);
+            previousChannel = channel;
+
+            int blockNumber = blocks.readInt();
+            int left = (blockNumber % blockColumnsCount) * blockSize;
+            int top = (blockNumber / blockColumnsCount) * blockSize;
+            int shift = 8 * channel;
+            for (int y = top; y < Math.min(top + blockSize, result.getHeight()); y++) {
+                for (int x = left; x < Math.min(left + blockSize, result.getWidth()); x++) {
+                    int value = blocks.readUnsignedByte();
+                    result.setRGB(x, y, (result.getRGB(x, y) & ~(0xff << shift)) | (value << shift));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package com.applitools.eyes;
+
+import com.applitools.utils.ImagePool;
+import com.applitools.utils.ImageUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+public class TestImagePool {
+
+    @Test
+    public void testReleasedBufferIsReused() {
+        ImagePool pool = new ImagePool(64 * 1024 * 1024);
+        BufferedImage image = pool.acquire(800, 600);
+        Assert.assertEquals(image.getType(), BufferedImage.TYPE_4BYTE_ABGR);
+        Assert.assertEquals(pool.getHitCount(), 0);
+
+        image.setRGB(10, 20, 0xff123456);
+        pool.release(image);
+        Assert.assertTrue(pool.getPooledBytes() >= 800 * 600 * 4);
+
+        // A slightly smaller image fits in the same size class
+        BufferedImage reused = pool.acquire(800, 590);
+        Assert.assertSame(getData(reused), getData(image));
+        Assert.assertEquals(pool.getHitCount(), 1);
+        Assert.assertEquals(pool.getHitRate(), 0.5);
+        Assert.assertEquals(pool.getPooledBytes(), 0);
+        Assert.assertEquals(reused.getType(), BufferedImage.TYPE_4BYTE_ABGR);
+        Assert.assertEquals(reused.getRGB(10, 20), 0);
+
+        // The reused image is a regular image
+        reused.setRGB(799, 589, 0x80abcdef);
+        Assert.assertEquals(reused.getRGB(799, 589), 0x80abcdef);
+        BufferedImage decoded = ImageUtils.imageFromBytes(ImageUtils.encodeAsPng(reused));
+        Assert.assertEquals(decoded.getWidth(), 800);
+        Assert.assertEquals(decoded.getHeight(), 590);
+        Assert.assertEquals(decoded.getRGB(799, 589), 0x80abcdef);
+    }
+
+    @Test
+    public void testBufferIsPooledOnce() {
+        ImagePool pool = new ImagePool(64 * 1024 * 1024);
+        BufferedImage image = pool.acquire(500, 500);
+        pool.release(image);
+        pool.release(image);
+        pool.release(image, image);
+
+        BufferedImage first = pool.acquire(500, 500);
+        BufferedImage second = pool.acquire(500, 500);
+        Assert.assertEquals(pool.getHitCount(), 1);
+        Assert.assertNotSame(getData(first), getData(second));
+    }
+
+    @Test
+    public void testPooledBytesAreCapped() {
+        ImagePool pool = new ImagePool(5 * 512 * 1024);
+        BufferedImage first = pool.acquire(512, 512);
+        BufferedImage second = pool.acquire(512, 512);
+        BufferedImage third = pool.acquire(512, 512);
+        pool.release(first, second, third);
+        Assert.assertEquals(pool.getPooledBytes(), 2 * 1024 * 1024);
+        Assert.assertEquals(pool.getPeakPooledBytes(), 2 * 1024 * 1024);
+
+        pool.acquire(512, 512);
+        Assert.assertEquals(pool.getPooledBytes(), 1024 * 1024);
+        Assert.assertEquals(pool.getPeakPooledBytes(), 2 * 1024 * 1024);
+
+        // Images larger than the cap aren't pooled at all
+        pool.release(pool.acquire(1024, 1024));
+        Assert.assertEquals(pool.getPooledBytes(), 1024 * 1024);
+    }
+
+    @Test
+    public void testForeignImagesAreIgnored() {
+        ImagePool pool = new ImagePool(64 * 1024 * 1024);
+        pool.release(new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB));
+        // The buffer of a plain image has a pooled size class, but the caller may still use it
+        pool.release(new BufferedImage(1024, 1024, BufferedImage.TYPE_4BYTE_ABGR));
+        // Images of another pool aren't taken either
+        pool.release(new ImagePool(64 * 1024 * 1024).acquire(600, 600));
+        pool.release(pool.acquire(600, 600).getSubimage(10, 10, 500, 500));
+        pool.release((BufferedImage) null);
+        Assert.assertEquals(pool.getPooledBytes(), 0);
+    }
+
+    @Test
+    public void testCroppingAndScalingKeepPixels() {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_4BYTE_ABGR);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, 0xff000000 | (x << 12) | y);
+            }
+        }
+
+        BufferedImage cropped = ImageUtils.cropImage(image, new Region(30, 40, 200, 100));
+        Assert.assertEquals(cropped.getWidth(), 200);
+        Assert.assertEquals(cropped.getHeight(), 100);
+        for (int y = 0; y < cropped.getHeight(); y++) {
+            for (int x = 0; x < cropped.getWidth(); x++) {
+                Assert.assertEquals(cropped.getRGB(x, y), image.getRGB(x + 30, y + 40));
+            }
+        }
+
+        BufferedImage scaled = ImageUtils.scaleImage(image, 0.5);
+        Assert.assertEquals(scaled.getWidth(), 200);
+        Assert.assertEquals(scaled.getHeight(), 150);
+        int[] scaledPixels = scaled.getRGB(0, 0, 200, 150, null, 0, 200);
+
+        // Scaling into released buffers gives the same result
+        ImagePool.getDefault().release(cropped, scaled);
+        BufferedImage rescaled = ImageUtils.scaleImage(image, 0.5);
+        Assert.assertEquals(rescaled.getRGB(0, 0, 200, 150, null, 0, 200), scaledPixels);
+    }
+
+    private static byte[] getData(BufferedImage image) {
+        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+}
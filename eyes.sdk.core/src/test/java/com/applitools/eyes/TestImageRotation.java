@@ -0,0 +1,67 @@
+package com.applitools.eyes;
+
+import com.applitools.eyes.utils.TestUtils;
+import com.applitools.utils.ImageUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+
+public class TestImageRotation {
+
+    @Test
+    public void testRightAngleRotations() {
+        // Not a multiple of the block size, so there are partial blocks
+        BufferedImage image = TestUtils.createImage(77, 45, BufferedImage.TYPE_4BYTE_ABGR);
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        BufferedImage rotated = ImageUtils.rotateImage(image, 90);
+        Assert.assertEquals(rotated.getType(), ImageUtils.REQUIRED_IMAGE_TYPE);
+        Assert.assertEquals(rotated.getWidth(), height);
+        Assert.assertEquals(rotated.getHeight(), width);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Assert.assertEquals(rotated.getRGB(height - 1 - y, x), image.getRGB(x, y));
+            }
+        }
+
+        rotated = ImageUtils.rotateImage(image, 180);
+        Assert.assertEquals(rotated.getWidth(), width);
+        Assert.assertEquals(rotated.getHeight(), height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Assert.assertEquals(rotated.getRGB(width - 1 - x, height - 1 - y), image.getRGB(x, y));
+            }
+        }
+
+        rotated = ImageUtils.rotateImage(image, 270);
+        Assert.assertEquals(rotated.getWidth(), height);
+        Assert.assertEquals(rotated.getHeight(), width);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Assert.assertEquals(rotated.getRGB(y, width - 1 - x), image.getRGB(x, y));
+            }
+        }
+
+        TestUtils.assertSameImage(ImageUtils.rotateImage(image, -90), ImageUtils.rotateImage(image, 270));
+        TestUtils.assertSameImage(ImageUtils.rotateImage(image, 450), ImageUtils.rotateImage(image, 90));
+        TestUtils.assertSameImage(ImageUtils.rotateImage(ImageUtils.rotateImage(image, 90), -90), image);
+    }
+
+    @Test
+    public void testRotationOfViewsAndOtherTypes() {
+        BufferedImage container = TestUtils.createImage(120, 90, BufferedImage.TYPE_4BYTE_ABGR);
+        BufferedImage view = container.getSubimage(13, 7, 64, 50);
+        TestUtils.assertSameImage(ImageUtils.rotateImage(view, 90), ImageUtils.rotateImage(copy(view), 90));
+
+        BufferedImage rgbImage = TestUtils.createImage(64, 50, BufferedImage.TYPE_INT_RGB);
+        BufferedImage rotated = ImageUtils.rotateImage(rgbImage, 270);
+        Assert.assertEquals(rotated.getType(), ImageUtils.REQUIRED_IMAGE_TYPE);
+        Assert.assertEquals(rotated.getRGB(0, 63), rgbImage.getRGB(0, 0));
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        return ImageUtils.copyImageWithType(image, ImageUtils.REQUIRED_IMAGE_TYPE);
+    }
+}
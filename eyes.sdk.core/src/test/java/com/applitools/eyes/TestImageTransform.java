@@ -0,0 +1,68 @@
+package com.applitools.eyes;
+
+import com.applitools.eyes.utils.TestUtils;
+import com.applitools.utils.ImageTransform;
+import com.applitools.utils.ImageUtils;
+import com.applitools.utils.TiledCanvas;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+public class TestImageTransform {
+
+    @Test
+    public void testSameAsCropScaleCrop() throws IOException {
+        BufferedImage image = TestUtils.createImage(403, 297, BufferedImage.TYPE_4BYTE_ABGR);
+        Region physicalCrop = new Region(7, 11, 380, 270);
+        Region logicalCrop = new Region(5, 3, 150, 900);
+
+        for (double scaleRatio : new double[] {0.25, 0.5, 1, 1.7}) {
+            BufferedImage expected = ImageUtils.cropImage(
+                    ImageUtils.scaleImage(ImageUtils.cropImage(image, physicalCrop), scaleRatio),
+                    logicalCrop);
+
+            ImageTransform transform = new ImageTransform(image)
+                    .crop(physicalCrop).scale(scaleRatio).crop(logicalCrop);
+            Assert.assertEquals(transform.getWidth(), expected.getWidth());
+            Assert.assertEquals(transform.getHeight(), expected.getHeight());
+            TestUtils.assertSameImage(transform.apply(), expected);
+
+            // Drawing into an image gives the same pixels as pasting the result
+            BufferedImage heapImage = new BufferedImage(800, 900, BufferedImage.TYPE_4BYTE_ABGR);
+            transform.drawInto(heapImage, 20, 30);
+            TestUtils.assertSameImage(heapImage, expected, 20, 30);
+
+            BufferedImage canvas = TiledCanvas.create(800, 900);
+            transform.drawInto(canvas, 20, 30);
+            TestUtils.assertSameImage(canvas, expected, 20, 30);
+        }
+    }
+
+    @Test
+    public void testOutOfBoundsCropsAreIgnored() {
+        BufferedImage image = TestUtils.createImage(100, 80, BufferedImage.TYPE_4BYTE_ABGR);
+        ImageTransform transform = new ImageTransform(image)
+                .crop(new Region(200, 200, 10, 10)).scale(2).crop(new Region(-5, -5, 50, 60));
+        Assert.assertEquals(transform.getWidth(), 45);
+        Assert.assertEquals(transform.getHeight(), 55);
+
+        // Pixels outside the target are clipped
+        BufferedImage target = new BufferedImage(40, 40, BufferedImage.TYPE_4BYTE_ABGR);
+        transform.drawInto(target, -10, 0);
+        BufferedImage expected = ImageUtils.scaleImage(image, 2);
+        Assert.assertEquals(target.getRGB(0, 0), expected.getRGB(10, 0));
+        Assert.assertEquals(target.getRGB(34, 39), expected.getRGB(44, 39));
+    }
+
+    @Test
+    public void testScaledOnce() {
+        ImageTransform transform = new ImageTransform(TestUtils.createImage(100, 80, BufferedImage.TYPE_4BYTE_ABGR)).scale(0.5);
+        try {
+            transform.scale(0.5);
+            Assert.fail("A transform can't be scaled twice");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.applitools.eyes;
+
+import com.applitools.eyes.utils.TestUtils;
+import com.applitools.utils.ImageUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+public class TestPngEncoder {
+
+    @Test
+    public void testRoundTripOfLargeImage() throws IOException {
+        // Large enough to be split into several stripes
+        BufferedImage image = createScreenshotLikeImage(1500, 1200, BufferedImage.TYPE_4BYTE_ABGR);
+        for (int compressionLevel : new int[] {Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION}) {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            ImageUtils.encodeAsPng(image, stream, compressionLevel);
+            TestUtils.assertSameImage(ImageIO.read(new ByteArrayInputStream(stream.toByteArray())), image);
+        }
+    }
+
+    @Test
+    public void testRoundTripOfImageTypes() throws IOException {
+        for (int imageType : new int[] {BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB}) {
+            BufferedImage image = createScreenshotLikeImage(97, 61, imageType);
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(ImageUtils.encodeAsPng(image)));
+            Assert.assertEquals(decoded.getColorModel().hasAlpha(), image.getColorModel().hasAlpha());
+            TestUtils.assertSameImage(decoded, image);
+        }
+    }
+
+    @Test
+    public void testRoundTripOfView() throws IOException {
+        BufferedImage container = createScreenshotLikeImage(400, 300, BufferedImage.TYPE_4BYTE_ABGR);
+        BufferedImage view = container.getSubimage(31, 17, 301, 250);
+        TestUtils.assertSameImage(ImageIO.read(new ByteArrayInputStream(ImageUtils.encodeAsPng(view))), view);
+    }
+
+    @Test
+    public void testOutputIsDeterministic() {
+        BufferedImage image = createScreenshotLikeImage(1200, 1000, BufferedImage.TYPE_4BYTE_ABGR);
+        Assert.assertTrue(Arrays.equals(ImageUtils.encodeAsPng(image), ImageUtils.encodeAsPng(image)));
+    }
+
+    /**
+     * Creates an image with flat areas and some noise, with a semi transparent corner.
+     */
+    private static BufferedImage createScreenshotLikeImage(int width, int height, int imageType) {
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        Random random = new Random(0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = (y / 40) % 2 == 0 ? 0xfff0f0f0 : 0xff2060a0;
+                if (x % 50 < 10) {
+                    argb = 0xff000000 | random.nextInt(0xffffff);
+                }
+                if (x < 5 && y < 5) {
+                    argb = 0x80ff0000;
+                }
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
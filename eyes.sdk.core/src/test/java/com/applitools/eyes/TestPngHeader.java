@@ -0,0 +1,79 @@
+package com.applitools.eyes;
+
+import com.applitools.eyes.utils.TestUtils;
+import com.applitools.utils.ImageUtils;
+import com.applitools.utils.PngHeader;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class TestPngHeader {
+
+    @Test
+    public void testReadHeader() {
+        byte[] imageBytes = ImageUtils.encodeAsPng(TestUtils.createImage(67, 45, BufferedImage.TYPE_4BYTE_ABGR));
+
+        PngHeader header = PngHeader.read(imageBytes);
+        Assert.assertNotNull(header);
+        Assert.assertEquals(header.getWidth(), 67);
+        Assert.assertEquals(header.getHeight(), 45);
+        Assert.assertEquals(header.getBitDepth(), 8);
+        Assert.assertEquals(header.getColorType(), PngHeader.COLOR_TYPE_TRUECOLOR_ALPHA);
+        Assert.assertFalse(header.isInterlaced());
+        // Only known once the whole stream is validated
+        Assert.assertFalse(header.isPlainTrueColor());
+
+        header = PngHeader.read(imageBytes, true);
+        Assert.assertNotNull(header);
+        Assert.assertTrue(header.isPlainTrueColor());
+    }
+
+    @Test
+    public void testOtherColorTypes() throws IOException {
+        PngHeader header = PngHeader.read(encodeWithImageIO(TestUtils.createImage(67, 45, BufferedImage.TYPE_INT_RGB)), true);
+        Assert.assertNotNull(header);
+        Assert.assertEquals(header.getColorType(), PngHeader.COLOR_TYPE_TRUECOLOR);
+        Assert.assertEquals(header.getBitDepth(), 8);
+
+        header = PngHeader.read(encodeWithImageIO(TestUtils.createImage(67, 45, BufferedImage.TYPE_BYTE_GRAY)), true);
+        Assert.assertNotNull(header);
+        Assert.assertEquals(header.getColorType(), PngHeader.COLOR_TYPE_GRAYSCALE);
+        Assert.assertFalse(header.isPlainTrueColor());
+    }
+
+    @Test
+    public void testMalformedImages() throws IOException {
+        byte[] imageBytes = ImageUtils.encodeAsPng(TestUtils.createImage(67, 45, BufferedImage.TYPE_4BYTE_ABGR));
+
+        // A corrupt pixel data chunk is only found when the checksums are validated
+        byte[] corruptBytes = imageBytes.clone();
+        corruptBytes[imageBytes.length / 2] ^= 1;
+        Assert.assertNotNull(PngHeader.read(corruptBytes));
+        Assert.assertNull(PngHeader.read(corruptBytes, true));
+
+        byte[] truncatedBytes = Arrays.copyOf(imageBytes, imageBytes.length - 12);
+        Assert.assertNotNull(PngHeader.read(truncatedBytes));
+        Assert.assertNull(PngHeader.read(truncatedBytes, true));
+
+        // A corrupt header is always found
+        byte[] corruptHeader = imageBytes.clone();
+        corruptHeader[17] ^= 1;
+        Assert.assertNull(PngHeader.read(corruptHeader));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ImageIO.write(TestUtils.createImage(67, 45, BufferedImage.TYPE_INT_RGB), "jpg", stream);
+        Assert.assertNull(PngHeader.read(stream.toByteArray(), true));
+        Assert.assertNull(PngHeader.read(new byte[0]));
+    }
+
+    private static byte[] encodeWithImageIO(BufferedImage image) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", stream);
+        return stream.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package com.applitools.eyes;
+
+import com.applitools.eyes.utils.TestUtils;
+import com.applitools.utils.ImageUtils;
+import com.applitools.utils.TiledCanvas;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class TestTiledCanvas {
+
+    @Test
+    public void testStitchAndEncode() throws IOException {
+        // Large enough for rows to cross the boundary between tiles
+        BufferedImage canvas = TiledCanvas.create(1100, 4000);
+        Assert.assertTrue(TiledCanvas.isCanvas(canvas));
+        Assert.assertSame(ImageUtils.normalizeImageType(canvas), canvas);
+        Assert.assertEquals(canvas.getRGB(1099, 3999), 0);
+
+        BufferedImage part = TestUtils.createImage(1100, 700, BufferedImage.TYPE_4BYTE_ABGR);
+        for (int y = 0; y < 4000; y += 600) {
+            TiledCanvas.paste(canvas, part, 0, y);
+        }
+        BufferedImage otherPart = TestUtils.createImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        TiledCanvas.paste(canvas, otherPart, 950, 3850);
+
+        Assert.assertEquals(canvas.getRGB(10, 610), part.getRGB(10, 10));
+        Assert.assertEquals(canvas.getRGB(1099, 3811), part.getRGB(1099, 211));
+        Assert.assertEquals(canvas.getRGB(960, 3900), otherPart.getRGB(10, 50));
+        Assert.assertEquals(canvas.getRGB(949, 3900), part.getRGB(949, 300));
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(ImageUtils.encodeAsPng(canvas)));
+        TestUtils.assertSameImage(decoded, canvas);
+
+        BufferedImage view = canvas.getSubimage(900, 3700, 200, 300);
+        decoded = ImageIO.read(new ByteArrayInputStream(ImageUtils.encodeAsPng(view)));
+        TestUtils.assertSameImage(decoded, view);
+    }
+
+    @Test
+    public void testCropAndTrim() throws IOException {
+        BufferedImage canvas = TiledCanvas.create(500, 400);
+        BufferedImage part = TestUtils.createImage(500, 400, BufferedImage.TYPE_4BYTE_ABGR);
+        TiledCanvas.paste(canvas, part, 0, 0);
+
+        // Crops of a canvas are views of it, until they are copied
+        BufferedImage cropped = ImageUtils.cropImage(canvas, new Region(20, 30, 100, 80));
+        Assert.assertTrue(TiledCanvas.isCanvas(cropped));
+        TestUtils.assertSameImage(cropped, part.getSubimage(20, 30, 100, 80));
+        BufferedImage copy = ImageUtils.copyIfView(cropped);
+        Assert.assertFalse(TiledCanvas.isCanvas(copy));
+        TestUtils.assertSameImage(copy, part.getSubimage(20, 30, 100, 80));
+
+        BufferedImage trimmed = TiledCanvas.trim(canvas, 500, 250);
+        Assert.assertTrue(TiledCanvas.isCanvas(trimmed));
+        TestUtils.assertSameImage(trimmed, part.getSubimage(0, 0, 500, 250));
+
+        trimmed = TiledCanvas.trim(canvas, 321, 250);
+        Assert.assertTrue(TiledCanvas.isCanvas(trimmed));
+        TestUtils.assertSameImage(trimmed, part.getSubimage(0, 0, 321, 250));
+
+        // Canvases can be pasted into canvases and into heap images
+        BufferedImage heapImage = new BufferedImage(200, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        TiledCanvas.paste(heapImage, canvas.getSubimage(100, 100, 200, 200), 0, 0);
+        TestUtils.assertSameImage(heapImage, part.getSubimage(100, 100, 200, 200));
+    }
+
+    @Test
+    public void testSmallImagesAreStitchedOnTheHeap() {
+        BufferedImage image = TiledCanvas.createForStitching(1000, 1000);
+        Assert.assertFalse(TiledCanvas.isCanvas(image));
+        Assert.assertEquals(image.getType(), BufferedImage.TYPE_4BYTE_ABGR);
+    }
+}
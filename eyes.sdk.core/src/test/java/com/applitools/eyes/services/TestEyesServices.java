@@ -5,6 +5,7 @@ import com.applitools.connectivity.ServerConnector;
 import com.applitools.eyes.*;
 import com.applitools.eyes.config.Configuration;
 import com.applitools.eyes.visualgrid.model.*;
+import com.applitools.utils.ImageUtils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.apache.commons.lang3.Range;
@@ -12,6 +13,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -182,6 +184,48 @@ public class TestEyesServices {
         Assert.assertEquals(getFailedTasks(checkService), new HashSet<>(Arrays.asList("2", "3", "4", "5")));
     }
 
+    @Test
+    public void testCheckServiceDeltaUploads() {
+        final List<String> contentTypes = new ArrayList<>();
+        ServerConnector serverConnector = new MockServerConnector() {
+            @Override
+            public void uploadData(final TaskListener<String> listener, final byte[] bytes, final String contentType, final String mediaType) {
+                contentTypes.add(contentType);
+                listener.onComplete("https://storage/" + contentTypes.size());
+            }
+        };
+
+        BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        Random random = new Random(0);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, 0xff000000 | random.nextInt(0xffffff));
+            }
+        }
+        BufferedImage retryImage = ImageUtils.copyImageWithType(image, BufferedImage.TYPE_4BYTE_ABGR);
+        retryImage.setRGB(50, 50, 0xffffffff);
+
+        RunningSession runningSession = new RunningSession();
+        CheckService checkService = new CheckService(new Logger(), serverConnector, true);
+        checkService.tryUploadImage("1", mockMatchWindowData(runningSession, image), mock(ServiceTaskListener.class));
+        checkService.tryUploadImage("1", mockMatchWindowData(runningSession, retryImage), mock(ServiceTaskListener.class));
+        checkService.tryUploadImage("2", mockMatchWindowData(new RunningSession(), retryImage), mock(ServiceTaskListener.class));
+        checkService.tryUploadImage("1", mockMatchWindowData(runningSession, image), mock(ServiceTaskListener.class));
+        Assert.assertEquals(contentTypes, Arrays.asList("image/png", "application/octet-stream", "image/png", "application/octet-stream"));
+    }
+
+    private static MatchWindowData mockMatchWindowData(RunningSession runningSession, BufferedImage image) {
+        EyesScreenshot screenshot = mock(EyesScreenshot.class);
+        when(screenshot.getImage()).thenReturn(image);
+        AppOutput appOutput = mock(AppOutput.class);
+        when(appOutput.getScreenshot()).thenReturn(screenshot);
+        when(appOutput.getScreenshotBytes()).thenReturn(ImageUtils.encodeAsPng(image));
+        MatchWindowData matchWindowData = mock(MatchWindowData.class);
+        when(matchWindowData.getAppOutput()).thenReturn(appOutput);
+        when(matchWindowData.getRunningSession()).thenReturn(runningSession);
+        return matchWindowData;
+    }
+
     @Test
     public void testCloseService() {
         final SessionStopInfo openFailedStopInfo = mock(SessionStopInfo.class);
@@ -10,10 +10,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriBuilder;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
@@ -179,6 +181,36 @@ public class TestUtils {
         return mapper.readTree(dom);
     }
 
+    /**
+     * Creates an image with a gradient, so pixels in different positions have different colors.
+     */
+    public static BufferedImage createImage(int width, int height, int imageType) {
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xff000000 | (x * 3 << 16) | (y * 5 << 8) | ((x + y) & 0xff));
+            }
+        }
+        return image;
+    }
+
+    public static void assertSameImage(BufferedImage actual, BufferedImage expected) {
+        Assert.assertEquals(actual.getWidth(), expected.getWidth());
+        Assert.assertEquals(actual.getHeight(), expected.getHeight());
+        assertSameImage(actual, expected, 0, 0);
+    }
+
+    /**
+     * Asserts that the expected image appears in the actual image at the given position.
+     */
+    public static void assertSameImage(BufferedImage actual, BufferedImage expected, int x, int y) {
+        for (int j = 0; j < expected.getHeight(); j++) {
+            for (int i = 0; i < expected.getWidth(); i++) {
+                Assert.assertEquals(actual.getRGB(x + i, y + j), expected.getRGB(i, j), String.format("Pixel (%d, %d)", i, j));
+            }
+        }
+    }
+
     public static boolean createTestResultsDirIfNotExists() {
         boolean success = true;
         File directory = new File(TestUtils.REPORTING_DIR);
@@ -37,19 +37,7 @@ public class BaseVisualLocatorsProvider implements VisualLocatorsProvider {
     @Override
     public Map<String, List<Region>> getLocators(VisualLocatorSettings visualLocatorSettings) {
         ArgumentGuard.notNull(visualLocatorSettings, "visualLocatorSettings");
-        BufferedImage viewPortScreenshot = screenshotProvider.getViewPortScreenshot(Stage.LOCATE);
-        logger.log(testId, Stage.LOCATE,
-                Pair.of("locatorNames", visualLocatorSettings.getNames()),
-                Pair.of("devicePixelRatio", devicePixelRatio),
-                Pair.of("scaledImageSize", new RectangleSize(viewPortScreenshot.getWidth(), viewPortScreenshot.getHeight())));
-        debugScreenshotsProvider.save(viewPortScreenshot, "visual_locators_final");
-        byte[] image = ImageUtils.encodeAsPng(viewPortScreenshot);
-        SyncTaskListener<String> listener = new SyncTaskListener<>(logger, "getLocators");
-        serverConnector.uploadImage(listener, image);
-        String viewportScreenshotUrl = listener.get();
-        if (viewportScreenshotUrl == null) {
-            throw new EyesException("Failed posting viewport image");
-        }
+        String viewportScreenshotUrl = getViewportScreenshotUrl(visualLocatorSettings);
 
         VisualLocatorsData data = new VisualLocatorsData(appName, viewportScreenshotUrl, visualLocatorSettings.isFirstOnly(), visualLocatorSettings.getNames());
         logger.log(testId, Stage.LOCATE,
@@ -67,4 +55,36 @@ public class BaseVisualLocatorsProvider implements VisualLocatorsProvider {
                 Pair.of("result", result));
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Captures the viewport and uploads it.
+     * @return The url of the uploaded viewport screenshot.
+     */
+    protected String getViewportScreenshotUrl(VisualLocatorSettings visualLocatorSettings) {
+        BufferedImage viewPortScreenshot = screenshotProvider.getViewPortScreenshot(Stage.LOCATE);
+        logger.log(testId, Stage.LOCATE,
+                Pair.of("locatorNames", visualLocatorSettings.getNames()),
+                Pair.of("devicePixelRatio", devicePixelRatio),
+                Pair.of("scaledImageSize", new RectangleSize(viewPortScreenshot.getWidth(), viewPortScreenshot.getHeight())));
+        return uploadViewportScreenshot(viewPortScreenshot);
+    }
+
+    protected String uploadViewportScreenshot(BufferedImage viewPortScreenshot) {
+        debugScreenshotsProvider.save(viewPortScreenshot, "visual_locators_final");
+        return uploadViewportScreenshot(ImageUtils.encodeAsPng(viewPortScreenshot));
+    }
+
+    /**
+     * @param image The viewport screenshot, encoded as a PNG.
+     * @return The url of the uploaded viewport screenshot.
+     */
+    protected String uploadViewportScreenshot(byte[] image) {
+        SyncTaskListener<String> listener = new SyncTaskListener<>(logger, "getLocators");
+        serverConnector.uploadImage(listener, image);
+        String viewportScreenshotUrl = listener.get();
+        if (viewportScreenshotUrl == null) {
+            throw new EyesException("Failed posting viewport image");
+        }
+        return viewportScreenshotUrl;
+    }
+}
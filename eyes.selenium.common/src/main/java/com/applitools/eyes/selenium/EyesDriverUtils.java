@@ -12,14 +12,25 @@ import org.openqa.selenium.interactions.Coordinates;
 import java.io.IOException;
 import java.lang.reflect.*;
 import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 public class EyesDriverUtils {
     private static final String NATIVE_APP = "NATIVE_APP";
     private static final String PLATFORM_VERSION = "platformVersion";
     private static final String DEVICE_NAME = "deviceName";
+
+    // The time a resize by a cached browser chrome delta is given to settle, as in setBrowserSize
+    private static final int VIEWPORT_SIZE_SETTLE_TIMEOUT = 1000;
+    private static final int VIEWPORT_SIZE_POLL_INTERVAL = 100;
+
+    // The difference between the browser window size and its viewport size, measured once per driver
+    private static final Map<WebDriver, RectangleSize> browserChromeDeltas =
+            Collections.synchronizedMap(new WeakHashMap<WebDriver, RectangleSize>());
+
     // See Applitools WiKi for explanation.
     private static final String JS_GET_VIEWPORT_SIZE =
             "var height = undefined;"
@@ -498,12 +509,65 @@ public class EyesDriverUtils {
             GeneralUtils.logExceptionStackTrace(logger, Stage.GENERAL, e);
         }
 
+        WebDriver underlyingDriver = getUnderlyingDriver(driver);
+        RectangleSize browserChromeDelta = browserChromeDeltas.get(underlyingDriver);
+        if (browserChromeDelta != null) {
+            driver.manage().window().setSize(new Dimension(requiredSize.getWidth() + browserChromeDelta.getWidth(),
+                    requiredSize.getHeight() + browserChromeDelta.getHeight()));
+            actualViewportSize = waitForViewportSize(driver, requiredSize);
+            if (actualViewportSize.equals(requiredSize)) {
+                return;
+            }
+
+            // The window state changed since the delta was measured (e.g., the browser was maximized)
+            browserChromeDeltas.remove(underlyingDriver);
+        }
+
+        if (!trySetViewportSizeByBrowserSize(driver, actualViewportSize, requiredSize)) {
+            throw new EyesException("Failed to set viewport size!");
+        }
+
+        try {
+            Dimension browserSize = driver.manage().window().getSize();
+            browserChromeDeltas.put(underlyingDriver, new RectangleSize(browserSize.getWidth() - requiredSize.getWidth(),
+                    browserSize.getHeight() - requiredSize.getHeight()));
+        } catch (WebDriverException e) {
+            GeneralUtils.logExceptionStackTrace(logger, Stage.GENERAL, e);
+        }
+    }
+
+    /**
+     * Polls the viewport size after a resize, since the window manager may apply it only after a while.
+     * @param driver       The web driver to use.
+     * @param requiredSize The required viewport size.
+     * @return The viewport size once it is the required size, or the last viewport size read if the resize didn't
+     * settle to the required size within {@link #VIEWPORT_SIZE_SETTLE_TIMEOUT} milliseconds.
+     */
+    private static RectangleSize waitForViewportSize(WebDriver driver, RectangleSize requiredSize) {
+        long timeout = System.currentTimeMillis() + VIEWPORT_SIZE_SETTLE_TIMEOUT;
+        RectangleSize actualViewportSize = getViewportSize((JavascriptExecutor) driver);
+        while (!actualViewportSize.equals(requiredSize) && System.currentTimeMillis() < timeout) {
+            GeneralUtils.sleep(VIEWPORT_SIZE_POLL_INTERVAL);
+            actualViewportSize = getViewportSize((JavascriptExecutor) driver);
+        }
+        return actualViewportSize;
+    }
+
+    /**
+     * Resizes the browser until its viewport size converges to the required size.
+     * @param driver             The web driver to use.
+     * @param actualViewportSize The current viewport size.
+     * @param requiredSize       The required viewport size.
+     * @return {@code true} if the viewport size was set, {@code false} otherwise.
+     */
+    private static boolean trySetViewportSizeByBrowserSize(WebDriver driver, RectangleSize actualViewportSize,
+                                                           RectangleSize requiredSize) {
         setBrowserSizeByViewportSize(driver, actualViewportSize, requiredSize);
 
         actualViewportSize = getViewportSize((JavascriptExecutor) driver);
 
         if (actualViewportSize.equals(requiredSize)) {
-            return;
+            return true;
         }
 
         // Additional attempt. This Solves the "maximized browser" bug
@@ -514,7 +578,7 @@ public class EyesDriverUtils {
 
         actualViewportSize = getViewportSize((JavascriptExecutor) driver);
         if (actualViewportSize.equals(requiredSize)) {
-            return;
+            return true;
         }
 
         final int MAX_DIFF = 3;
@@ -557,14 +621,14 @@ public class EyesDriverUtils {
                 actualViewportSize = getViewportSize((JavascriptExecutor) driver);
 
                 if (actualViewportSize.equals(requiredSize)) {
-                    return;
+                    return true;
                 }
             } while ((Math.abs(currWidthChange) <= Math.abs(widthDiff) ||
                     Math.abs(currHeightChange) <= Math.abs(heightDiff))
                     && (--retriesLeft > 0));
         }
 
-        throw new EyesException("Failed to set viewport size!");
+        return false;
     }
 
     /**
@@ -4,9 +4,34 @@ import com.applitools.eyes.Location;
 import com.applitools.eyes.selenium.frames.FrameChain;
 import com.applitools.eyes.selenium.wrappers.EyesSeleniumDriver;
 import com.applitools.eyes.selenium.wrappers.EyesTargetLocator;
+import com.applitools.utils.GeneralUtils;
 import org.openqa.selenium.WebElement;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class FrameState {
+    private static final String JS_GET_STATE_AND_SET_OVERFLOW =
+            "var el=arguments[0]; var newOverflow=arguments[1]; " +
+                    "var state=el.style.transform+'#'+el.scrollLeft+';'+el.scrollTop+'#'+el.style.overflow; " +
+                    "if (newOverflow) { " +
+                    "var origOF=el.style.overflow; " +
+                    "el.style.overflow=newOverflow; " +
+                    "if (newOverflow.toUpperCase() === 'HIDDEN' && origOF.toUpperCase() !== 'HIDDEN') el.setAttribute('data-applitools-original-overflow',origOF); " +
+                    "} " +
+                    "return state;";
+
+    private static final String JS_RESTORE_STATES =
+            "var states=arguments[0]; " +
+                    "for (var i = 0; i < states.length; i++) { " +
+                    "var el=states[i][0]; " +
+                    "el.style.transform=states[i][1]; " +
+                    "el.scrollLeft=states[i][2]; " +
+                    "el.scrollTop=states[i][3]; " +
+                    "el.style.overflow=states[i][4]; " +
+                    "}";
+
     public FrameState(EyesSeleniumDriver driver, WebElement scrolledElement, String cssTransform, Location scrollPosition, String overflow, FrameChain frameChain) {
         this.driver = driver;
         this.scrolledElement = scrolledElement;
@@ -24,21 +49,47 @@ public class FrameState {
     private FrameChain frameChain;
 
     public void restore() {
-        EyesTargetLocator switchTo = (EyesTargetLocator) driver.switchTo();
-        switchTo.frames(frameChain);
-        driver.executeScript(
-                "var el=arguments[0]; " +
-                        "el.style.transform='" + cssTransform + "';" +
-                        "el.scrollLeft=" + scrollPosition.getX() + ";" +
-                        "el.scrollTop=" + scrollPosition.getY() + ";" +
-                        "el.style.overflow='" + overflow + "'",
-                scrolledElement);
+        restore(driver, Arrays.asList(this));
+    }
+
+    /**
+     * Restores the given states in order. Consecutive states of the same frame are restored in a single script
+     * execution, and the driver switches frames only when it isn't already in the frame of the next states.
+     */
+    public static void restore(EyesSeleniumDriver driver, List<FrameState> frameStates) {
+        int i = 0;
+        while (i < frameStates.size()) {
+            FrameChain frameChain = frameStates.get(i).frameChain;
+            List<List<Object>> states = new ArrayList<>();
+            while (i < frameStates.size() && FrameChain.isSameFrameChain(frameChain, frameStates.get(i).frameChain)) {
+                states.add(frameStates.get(i).toScriptArgument());
+                i++;
+            }
+
+            if (!FrameChain.isSameFrameChain(driver.getFrameChain(), frameChain)) {
+                ((EyesTargetLocator) driver.switchTo()).frames(frameChain);
+            }
+            driver.executeScript(JS_RESTORE_STATES, states);
+        }
+    }
+
+    private List<Object> toScriptArgument() {
+        return Arrays.<Object>asList(scrolledElement, cssTransform, scrollPosition.getX(), scrollPosition.getY(), overflow);
     }
 
     public static FrameState getCurrentFrameState(EyesSeleniumDriver driver, WebElement scrolledElement) {
-        String data = (String) driver.executeScript(
-                "var el=arguments[0]; return el.style.transform+'#'+el.scrollLeft+';'+el.scrollTop+'#'+el.style.overflow",
-                scrolledElement);
+        return getCurrentFrameState(driver, scrolledElement, null);
+    }
+
+    /**
+     * Saves the state of the scrolled element, and optionally sets its overflow, in a single script execution.
+     * @param newOverflow The overflow to set after saving the state, or {@code null} to keep the current overflow.
+     */
+    public static FrameState getCurrentFrameState(EyesSeleniumDriver driver, WebElement scrolledElement, String newOverflow) {
+        String data = (String) driver.executeScript(JS_GET_STATE_AND_SET_OVERFLOW, scrolledElement, newOverflow);
+        if (newOverflow != null) {
+            GeneralUtils.sleep(200);
+        }
 
         String[] datums = data.split("#", -1);
         String cssTransform = datums[0];
@@ -48,8 +48,7 @@ public class PageState {
         }
 
         if (!EyesDriverUtils.isMobileDevice(driver)) {
-            saveCurrentFrameState(frameStates, driver, userDefinedSRE);
-            tryHideScrollbarsInFrame(config, driver, userDefinedSRE);
+            saveCurrentFrameStateAndTryHideScrollbars(frameStates, config, driver, userDefinedSRE);
             switchToTargetFrame(seleniumCheckTarget, config, frameStates, userDefinedSRE);
         }
     }
@@ -78,10 +77,10 @@ public class PageState {
         }
 
         Collections.reverse(frameStates);
-        for(FrameState state : frameStates) {
-            state.restore();
+        FrameState.restore(driver, frameStates);
+        if (!FrameChain.isSameFrameChain(driver.getFrameChain(), originalFrameChain)) {
+            ((EyesTargetLocator) driver.switchTo()).frames(originalFrameChain);
         }
-        ((EyesTargetLocator) driver.switchTo()).frames(originalFrameChain);
     }
 
     private int switchToTargetFrame(ISeleniumCheckTarget checkTarget, Configuration config,
@@ -118,15 +117,14 @@ public class PageState {
         WebElement rootElement = SeleniumEyes.getScrollRootElementFromSREContainer(logger, frameTarget, driver);
         Frame frame = driver.getFrameChain().peek();
         frame.setScrollRootElement(rootElement);
-        saveCurrentFrameState(frameStates, driver, rootElement);
-        tryHideScrollbarsInFrame(config, driver, rootElement);
+        saveCurrentFrameStateAndTryHideScrollbars(frameStates, config, driver, rootElement);
         frame.setScrollRootElementInnerBounds(EyesRemoteWebElement.getClientBoundsWithoutBorders(rootElement, driver));
     }
 
-    private static void tryHideScrollbarsInFrame(Configuration config, EyesSeleniumDriver driver, WebElement rootElement) {
-        if (config.getHideScrollbars()) {
-            EyesDriverUtils.setOverflow(driver, "hidden", rootElement);
-        }
+    private static void saveCurrentFrameStateAndTryHideScrollbars(List<FrameState> frameStates, Configuration config,
+                                                                  EyesSeleniumDriver driver, WebElement rootElement) {
+        String newOverflow = config.getHideScrollbars() ? "hidden" : null;
+        frameStates.add(FrameState.getCurrentFrameState(driver, rootElement, newOverflow));
     }
 
     private static void saveCurrentFrameState(List<FrameState> frameStates, EyesSeleniumDriver driver, WebElement rootElement) {
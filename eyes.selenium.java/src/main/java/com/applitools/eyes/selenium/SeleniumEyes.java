@@ -1576,7 +1576,7 @@ public class SeleniumEyes extends RunningTest implements ISeleniumEyes {
         }
 
         if (!EyesDriverUtils.isMobileDevice(driver) && shouldCaptureDom(checkSettingsInternal.isSendDom())) {
-            result.setDomUrl(tryCaptureAndPostDom());
+            result.setDomUrlFuture(tryCaptureAndPostDomAsync());
         }
 
         result.setOriginalLocation(state.getOriginalLocation());
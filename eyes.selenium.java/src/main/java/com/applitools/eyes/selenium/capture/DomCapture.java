@@ -31,6 +31,42 @@ import java.util.concurrent.TimeoutException;
 
 public class DomCapture {
     private static final String APPLITOOLS_DEBUG_RCA = "APPLITOOLS_DEBUG_RCA";
+
+    /**
+     * Resolves a list of frame paths (each one a list of xpaths, starting from the current document) in a single
+     * script execution. Returns the location of every frame whose document is reachable (same origin), or null for
+     * frames which can't be accessed from the current document.
+     */
+    private static final String JS_RESOLVE_FRAMES_LOCATIONS =
+            "var framePaths = arguments[0]; " +
+                    "var retVal = []; " +
+                    "for (var i = 0; i < framePaths.length; i++) { " +
+                    "  var doc = document; " +
+                    "  try { " +
+                    "    for (var j = 0; j < framePaths[i].length && doc; j++) { " +
+                    "      var frame = doc.evaluate(framePaths[i][j], doc, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue; " +
+                    "      doc = frame ? frame.contentDocument : null; " +
+                    "    } " +
+                    "    retVal.push(doc ? doc.location.href : null); " +
+                    "  } catch (e) { " +
+                    "    retVal.push(null); " +
+                    "  } " +
+                    "} " +
+                    "return retVal;";
+
+    /**
+     * Runs a script inside the window of a same origin frame, without switching the driver into it.
+     * arguments[0] is the frame path (list of xpaths) and arguments[1] is the script body.
+     */
+    private static final String JS_RUN_IN_FRAME =
+            "var framePath = arguments[0]; " +
+                    "var win = window; " +
+                    "for (var i = 0; i < framePath.length; i++) { " +
+                    "  var frame = win.document.evaluate(framePath[i], win.document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue; " +
+                    "  win = frame.contentWindow; " +
+                    "} " +
+                    "return new win.Function(arguments[1]).call(win);";
+
     private final Phaser cssPhaser = new Phaser(); // Phaser for syncing all callbacks on a single Frame
 
     private static ServerConnector serverConnector = null;
@@ -41,6 +77,10 @@ public class DomCapture {
     String cssEndToken;
     final Map<String, CssTreeNode> cssNodesToReplace = Collections.synchronizedMap(new HashMap<String, CssTreeNode>());
     private boolean shouldWaitForPhaser = false;
+    private boolean captureSameOriginFramesInPlace = true;
+
+    // The path (xpaths from the driver's current context) of the frame currently being captured without switching
+    private List<String> currentFramePath = Collections.emptyList();
 
     private final UserAgent userAgent;
 
@@ -52,6 +92,19 @@ public class DomCapture {
         testId = eyes.getTestId();
     }
 
+    /**
+     * @param captureSameOriginFramesInPlace If true (default), frames the capture script reported as missing are
+     *                                       captured from the top document when they are of the same origin, and
+     *                                       the driver switches only into cross origin frames.
+     */
+    public void setCaptureSameOriginFramesInPlace(boolean captureSameOriginFramesInPlace) {
+        this.captureSameOriginFramesInPlace = captureSameOriginFramesInPlace;
+    }
+
+    public boolean getCaptureSameOriginFramesInPlace() {
+        return captureSameOriginFramesInPlace;
+    }
+
     public String getPageDom(PositionProvider positionProvider) {
         PositionMemento originalPosition = positionProvider.getState();
         positionProvider.setPosition(Location.ZERO);
@@ -112,10 +165,14 @@ public class DomCapture {
     }
 
     public String getFrameDom(String baseUrl, List<String> framesPath) {
+        final List<String> framePath = currentFramePath;
         ScriptExecutor executor = new ScriptExecutor() {
             @Override
             public Object execute(String script) {
-                return driver.executeScript(script);
+                if (framePath.isEmpty()) {
+                    return driver.executeScript(script);
+                }
+                return driver.executeScript(JS_RUN_IN_FRAME, framePath, script);
             }
         };
 
@@ -253,17 +310,39 @@ public class DomCapture {
 
     public Map<String, String> recurseFrames(List<String> missingFramesList, List<String> framesPath) {
         Map<String, String> framesData = new HashMap<>();
-        EyesTargetLocator switchTo = (EyesTargetLocator) driver.switchTo();
+        List<String> framesToSwitchTo = new ArrayList<>(missingFramesList);
+        if (captureSameOriginFramesInPlace && !missingFramesList.isEmpty()) {
+            Map<String, String> sameOriginFrames = resolveSameOriginFrames(missingFramesList);
+            for (Map.Entry<String, String> frameEntry : sameOriginFrames.entrySet()) {
+                String missingFrameLine = frameEntry.getKey();
+                String frameDom = captureFrameInPlace(missingFrameLine, frameEntry.getValue(), framesPath);
+                // Frames which couldn't be captured in place (e.g., due to a CSP which blocks the script) are
+                // captured by switching into them
+                if (frameDom != null) {
+                    framesToSwitchTo.remove(missingFrameLine);
+                    framesData.put(missingFrameLine, frameDom);
+                }
+            }
+        }
+
+        if (framesToSwitchTo.isEmpty()) {
+            return framesData;
+        }
 
+        EyesTargetLocator switchTo = (EyesTargetLocator) driver.switchTo();
         FrameChain fc = driver.getFrameChain().clone();
-        for (String missingFrameLine : missingFramesList) {
+        List<String> previousFramePath = currentFramePath;
+        for (String missingFrameLine : framesToSwitchTo) {
             try {
+                // The driver's context must match the document the frame paths are relative to
+                List<String> missingFrameXpaths = new ArrayList<>(previousFramePath);
                 // Each frame path is specified in a single line, levels separated by commas
-                String[] missingFrameXpaths = missingFrameLine.split(",");
+                missingFrameXpaths.addAll(Arrays.asList(missingFrameLine.split(",")));
                 for (String missingFrameXpath : missingFrameXpaths) {
                     WebElement frame = driver.findElement(By.xpath(missingFrameXpath));
                     switchTo.frame(frame);
                 }
+                currentFramePath = Collections.emptyList();
                 String locationAfterSwitch = (String) driver.executeScript("return document.location.href");
                 if (framesPath.contains(locationAfterSwitch)) {
                     framesData.put(missingFrameLine, "");
@@ -282,6 +361,7 @@ public class DomCapture {
                 framesData.put(missingFrameLine, "");
             } finally {
                 // Go back to where we started
+                currentFramePath = previousFramePath;
                 switchTo.frames(fc);
             }
         }
@@ -289,6 +369,73 @@ public class DomCapture {
         return framesData;
     }
 
+    /**
+     * Resolves the locations of all the given frames in a single script execution.
+     *
+     * @param missingFramesList The frames reported as missing by the DOM capture script.
+     * @return A map from each same origin frame line to its location. Frames which couldn't be resolved from the
+     * current document (e.g., cross origin frames) are not included.
+     */
+    private Map<String, String> resolveSameOriginFrames(List<String> missingFramesList) {
+        Map<String, String> result = new LinkedHashMap<>();
+        List<List<String>> framePaths = new ArrayList<>();
+        for (String missingFrameLine : missingFramesList) {
+            List<String> framePath = new ArrayList<>(currentFramePath);
+            framePath.addAll(Arrays.asList(missingFrameLine.split(",")));
+            framePaths.add(framePath);
+        }
+
+        Object locations;
+        try {
+            locations = driver.executeScript(JS_RESOLVE_FRAMES_LOCATIONS, framePaths);
+        } catch (Exception e) {
+            GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, Type.DOM_SCRIPT, e, testId);
+            return result;
+        }
+
+        if (!(locations instanceof List) || ((List<?>) locations).size() != missingFramesList.size()) {
+            return result;
+        }
+
+        List<?> locationsList = (List<?>) locations;
+        for (int i = 0; i < missingFramesList.size(); i++) {
+            Object location = locationsList.get(i);
+            if (location instanceof String) {
+                result.put(missingFramesList.get(i), (String) location);
+            }
+        }
+
+        logger.log(testId, Stage.CHECK, Type.DOM_SCRIPT,
+                Pair.of("sameOriginFramesCount", result.size()),
+                Pair.of("crossOriginFramesCount", missingFramesList.size() - result.size()));
+        return result;
+    }
+
+    /**
+     * @return The DOM of the frame, or {@code null} if it couldn't be captured without switching into it.
+     */
+    private String captureFrameInPlace(String missingFrameLine, String frameLocation, List<String> framesPath) {
+        if (framesPath.contains(frameLocation)) {
+            return "";
+        }
+
+        List<String> newFramePath = new ArrayList<>(framesPath);
+        newFramePath.add(frameLocation);
+
+        List<String> previousFramePath = currentFramePath;
+        List<String> framePath = new ArrayList<>(previousFramePath);
+        framePath.addAll(Arrays.asList(missingFrameLine.split(",")));
+        currentFramePath = framePath;
+        try {
+            return getFrameDom(frameLocation, newFramePath);
+        } catch (Exception e) {
+            GeneralUtils.logExceptionStackTrace(logger, Stage.CHECK, Type.DOM_SCRIPT, e, testId);
+            return null;
+        } finally {
+            currentFramePath = previousFramePath;
+        }
+    }
+
     private URI resolveUriString(String baseUrl, String uri) {
         if (uri.toLowerCase().startsWith("data:") || uri.toLowerCase().startsWith("javascript:")) {
             return null;
@@ -280,6 +280,7 @@ public class EyesWebDriverScreenshot extends EyesScreenshot {
 
         result.updateFrameLocationInScreenshot(new Location(-region.getLeft(), -region.getTop()));
         result.setDomUrl(this.domUrl);
+        result.setDomUrlFuture(this.domUrlFuture);
         return result;
     }
 
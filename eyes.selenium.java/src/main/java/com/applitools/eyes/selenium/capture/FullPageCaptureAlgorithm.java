@@ -5,6 +5,7 @@ import com.applitools.eyes.capture.EyesScreenshotFactory;
 import com.applitools.eyes.capture.ImageProvider;
 import com.applitools.eyes.config.Feature;
 import com.applitools.eyes.debug.DebugScreenshotsProvider;
+import com.applitools.eyes.debug.NullDebugScreenshotProvider;
 import com.applitools.eyes.CutProvider;
 import com.applitools.eyes.logging.Stage;
 import com.applitools.eyes.logging.TraceLevel;
@@ -15,7 +16,10 @@ import com.applitools.eyes.selenium.positioning.NullRegionPositionCompensation;
 import com.applitools.eyes.selenium.positioning.RegionPositionCompensation;
 import com.applitools.utils.ArgumentGuard;
 import com.applitools.utils.GeneralUtils;
+import com.applitools.utils.ImagePool;
+import com.applitools.utils.ImageTransform;
 import com.applitools.utils.ImageUtils;
+import com.applitools.utils.TiledCanvas;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.awt.*;
@@ -217,7 +221,8 @@ public class FullPageCaptureAlgorithm {
                 Pair.of("rectInScreenshot", new Region(rectInScreenshot)));
         SubregionForStitching[] screenshotParts = fullarea.getSubRegions(screenshotPartSize, stitchingOverlap, pixelRatio, rectInScreenshot, logger);
 
-        stitchedImage = new BufferedImage(fullarea.getWidth(), fullarea.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
+        // Very tall pages are stitched into a canvas on disk, rather than on the heap
+        stitchedImage = TiledCanvas.createForStitching(fullarea.getWidth(), fullarea.getHeight());
         // Take screenshot and stitch for each screenshot part.
         stitchScreenshot(stitchOffset, positionProvider, screenshotParts, scaleProvider.getScaleRatio(), scaledCutProvider, sizeRatio);
 
@@ -299,24 +304,33 @@ public class FullPageCaptureAlgorithm {
 
             BufferedImage partImage = imageProvider.getImage();
             BufferedImage cutPart = scaledCutProvider.cut(partImage);
-            BufferedImage croppedPart;
+
+            // The part is cropped, scaled and cropped again in a single pass,
+            // straight into the stitched image.
+            ImageTransform partTransform = new ImageTransform(cutPart);
             Rectangle r = partRegion.getPhysicalCropArea();
             if (!r.isEmpty()) {
-                croppedPart = ImageUtils.cropImage(cutPart, new Region(r.x, r.y, r.width + dx, r.height + dy));
-            } else {
-                croppedPart = cutPart;
+                partTransform.crop(new Region(r.x, r.y, r.width + dx, r.height + dy));
             }
 
             Rectangle r2 = partRegion.getLogicalCropArea();
-
-            BufferedImage scaledPartImage = ImageUtils.scaleImage(croppedPart, scaleRatio);
-            BufferedImage scaledCroppedPartImage = ImageUtils.cropImage(scaledPartImage,  new Region(r2.x, r2.y, r2.width + dx, r2.height + dy));
+            partTransform.scale(scaleRatio).crop(new Region(r2.x, r2.y, r2.width + dx, r2.height + dy));
 
             debugScreenshotsProvider.save(partImage, "partImage-" + originPosition.getX() + "_" + originPosition.getY());
-            debugScreenshotsProvider.save(scaledCroppedPartImage, "scaledCroppedPartImage-" + partPastePosition.getX() + "_" + partPastePosition.getY());
+            if (!(debugScreenshotsProvider instanceof NullDebugScreenshotProvider)) {
+                BufferedImage scaledCroppedPartImage = partTransform.apply();
+                debugScreenshotsProvider.save(scaledCroppedPartImage, "scaledCroppedPartImage-" + partPastePosition.getX() + "_" + partPastePosition.getY());
+                // An unscaled transform may return the part itself, which is still drawn below
+                if (scaledCroppedPartImage != cutPart) {
+                    ImagePool.getDefault().release(scaledCroppedPartImage);
+                }
+            }
             lastLocation = new Location(partPastePosition.x, partPastePosition.y);
-            lastSize = new RectangleSize(scaledCroppedPartImage.getWidth(), scaledCroppedPartImage.getHeight());
-            stitchedImage.getRaster().setRect(partPastePosition.x, partPastePosition.y, scaledCroppedPartImage.getData());
+            lastSize = new RectangleSize(partTransform.getWidth(), partTransform.getHeight());
+            partTransform.drawInto(stitchedImage, partPastePosition.x, partPastePosition.y);
+
+            // The part images are fresh copies, which aren't needed once they are stitched
+            ImagePool.getDefault().release(partImage, cutPart);
             index++;
         }
 
@@ -325,10 +339,11 @@ public class FullPageCaptureAlgorithm {
             int actualImageHeight = lastLocation.getY() + lastSize.getHeight();
 
             if (actualImageWidth < stitchedImage.getWidth() || actualImageHeight < stitchedImage.getHeight()) {
-                stitchedImage = ImageUtils.getImagePart(stitchedImage,
-                        new Region(0, 0,
-                                Math.min(actualImageWidth, stitchedImage.getWidth()),
-                                Math.min(actualImageHeight, stitchedImage.getHeight())));
+                BufferedImage untrimmedImage = stitchedImage;
+                stitchedImage = TiledCanvas.trim(stitchedImage,
+                        Math.min(actualImageWidth, stitchedImage.getWidth()),
+                        Math.min(actualImageHeight, stitchedImage.getHeight()));
+                ImagePool.getDefault().release(untrimmedImage);
             }
         }
 
@@ -0,0 +1,104 @@
+package com.applitools.eyes.selenium;
+
+import com.applitools.eyes.Logger;
+import com.applitools.eyes.RectangleSize;
+import com.applitools.eyes.utils.ReportingTestSuite;
+import org.mockito.ArgumentMatchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.*;
+
+public class TestViewportResize extends ReportingTestSuite {
+
+    public TestViewportResize() {
+        super.setGroupName("selenium");
+    }
+
+    /**
+     * A browser whose viewport is the window without its chrome, and which applies a resize only after a while, like
+     * a slow window manager.
+     */
+    private static class FakeBrowser {
+        private static final int RESIZE_DELAY = 300;
+
+        final WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        final WebDriver.Window window = mock(WebDriver.Window.class);
+        Dimension chrome = new Dimension(16, 120);
+        private Dimension windowSize = new Dimension(1000, 800);
+        private Dimension previousWindowSize = windowSize;
+        private long resizeTime;
+
+        FakeBrowser() {
+            WebDriver.Options options = mock(WebDriver.Options.class);
+            when(driver.manage()).thenReturn(options);
+            when(options.window()).thenReturn(window);
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) {
+                    previousWindowSize = windowSize;
+                    windowSize = invocation.getArgument(0);
+                    resizeTime = System.currentTimeMillis();
+                    return null;
+                }
+            }).when(window).setSize(ArgumentMatchers.any(Dimension.class));
+            when(window.getSize()).thenAnswer(new Answer<Dimension>() {
+                @Override
+                public Dimension answer(InvocationOnMock invocation) {
+                    return windowSize;
+                }
+            });
+            when(((JavascriptExecutor) driver).executeScript(ArgumentMatchers.anyString())).thenAnswer(new Answer<String>() {
+                @Override
+                public String answer(InvocationOnMock invocation) {
+                    Dimension size = System.currentTimeMillis() - resizeTime < RESIZE_DELAY ? previousWindowSize : windowSize;
+                    return (size.getWidth() - chrome.getWidth()) + ";" + (size.getHeight() - chrome.getHeight());
+                }
+            });
+        }
+
+        RectangleSize getViewportSize() {
+            return EyesDriverUtils.getViewportSize((JavascriptExecutor) driver);
+        }
+    }
+
+    @Test
+    public void testCachedBrowserChromeDelta() throws InterruptedException {
+        FakeBrowser browser = new FakeBrowser();
+        EyesDriverUtils.setViewportSize(new Logger(), browser.driver, new RectangleSize(800, 600));
+        Thread.sleep(FakeBrowser.RESIZE_DELAY);
+        Assert.assertEquals(browser.getViewportSize(), new RectangleSize(800, 600));
+
+        // The window is resized once, and the new size is awaited rather than read right away
+        clearInvocations(browser.window);
+        EyesDriverUtils.setViewportSize(new Logger(), browser.driver, new RectangleSize(1024, 700));
+        Assert.assertEquals(browser.getViewportSize(), new RectangleSize(1024, 700));
+        verify(browser.window, times(1)).setSize(ArgumentMatchers.any(Dimension.class));
+    }
+
+    @Test
+    public void testStaleBrowserChromeDeltaIsEvicted() throws InterruptedException {
+        FakeBrowser browser = new FakeBrowser();
+        EyesDriverUtils.setViewportSize(new Logger(), browser.driver, new RectangleSize(800, 600));
+        Thread.sleep(FakeBrowser.RESIZE_DELAY);
+
+        // The browser chrome changed (e.g., the browser was maximized), so the cached delta is wrong
+        browser.chrome = new Dimension(0, 60);
+        clearInvocations(browser.window);
+        EyesDriverUtils.setViewportSize(new Logger(), browser.driver, new RectangleSize(1024, 700));
+        Thread.sleep(FakeBrowser.RESIZE_DELAY);
+        Assert.assertEquals(browser.getViewportSize(), new RectangleSize(1024, 700));
+        verify(browser.window, atLeast(2)).setSize(ArgumentMatchers.any(Dimension.class));
+
+        // The delta is measured again
+        clearInvocations(browser.window);
+        EyesDriverUtils.setViewportSize(new Logger(), browser.driver, new RectangleSize(900, 650));
+        Assert.assertEquals(browser.getViewportSize(), new RectangleSize(900, 650));
+        verify(browser.window, times(1)).setSize(ArgumentMatchers.any(Dimension.class));
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.mockito.Mockito.*;
@@ -285,6 +286,75 @@ public final class TestSendDom extends ReportingTestSuite {
         verify(domCapture, times(1)).getFrameDom("url2", Arrays.asList("url3", "url1", "url4", "url2"));
     }
 
+    @Test
+    public void TestSameOriginFramesCapturedWithoutSwitching() {
+        EyesSeleniumDriver driver = mock(EyesSeleniumDriver.class);
+        EyesTargetLocator switchTo = mock(EyesTargetLocator.class);
+        when(driver.getFrameChain()).thenReturn(new FrameChain(new Logger()));
+        when(driver.switchTo()).thenReturn(switchTo);
+        when(driver.findElement(ArgumentMatchers.<By>any())).thenReturn(mock(WebElement.class));
+        when(driver.executeScript(startsWith("var framePaths"), any())).thenReturn(Arrays.asList("sameOriginUrl", null));
+        when(driver.executeScript("return document.location.href")).thenReturn("crossOriginUrl");
+
+        ServerConnector serverConnector = new MockServerConnector();
+        SeleniumEyes eyes = mock(SeleniumEyes.class);
+
+        when(eyes.getServerConnector()).thenReturn(serverConnector);
+        when(eyes.getLogger()).thenReturn(new Logger());
+        when(eyes.getUserAgent()).thenReturn(UserAgent.parseUserAgentString("Mozilla/5.0 (Windows NT 6.1; WOW64; rv:54.0) Gecko/20100101 Firefox/54.0"));
+        when(eyes.getDriver()).thenReturn(driver);
+
+        DomCapture domCapture = spy(new DomCapture(eyes));
+        doReturn("content").when(domCapture).getFrameDom(anyString(), ArgumentMatchers.<String>anyList());
+
+        Map<String, String> result = domCapture.recurseFrames(Arrays.asList("frame1", "frame2"), Arrays.asList("url"));
+        Assert.assertEquals(result.size(), 2);
+        Assert.assertEquals(result.get("frame1"), "content");
+        Assert.assertEquals(result.get("frame2"), "content");
+        verify(driver, never()).findElement(By.xpath("frame1"));
+        verify(driver, times(1)).findElement(By.xpath("frame2"));
+        verify(domCapture, times(1)).getFrameDom("sameOriginUrl", Arrays.asList("url", "sameOriginUrl"));
+        verify(domCapture, times(1)).getFrameDom("crossOriginUrl", Arrays.asList("url", "crossOriginUrl"));
+    }
+
+    @Test
+    public void TestFramesFailingInPlaceAreCapturedBySwitching() {
+        EyesSeleniumDriver driver = mock(EyesSeleniumDriver.class);
+        EyesTargetLocator switchTo = mock(EyesTargetLocator.class);
+        when(driver.getFrameChain()).thenReturn(new FrameChain(new Logger()));
+        when(driver.switchTo()).thenReturn(switchTo);
+        when(driver.findElement(ArgumentMatchers.<By>any())).thenReturn(mock(WebElement.class));
+        when(driver.executeScript(startsWith("var framePaths"), any())).thenReturn(Arrays.asList("sameOriginUrl"));
+        when(driver.executeScript("return document.location.href")).thenReturn("sameOriginUrl");
+
+        ServerConnector serverConnector = new MockServerConnector();
+        SeleniumEyes eyes = mock(SeleniumEyes.class);
+
+        when(eyes.getServerConnector()).thenReturn(serverConnector);
+        when(eyes.getLogger()).thenReturn(new Logger());
+        when(eyes.getUserAgent()).thenReturn(UserAgent.parseUserAgentString("Mozilla/5.0 (Windows NT 6.1; WOW64; rv:54.0) Gecko/20100101 Firefox/54.0"));
+        when(eyes.getDriver()).thenReturn(driver);
+
+        // Running the capture script inside the frame's window fails, e.g., when the page's CSP blocks it
+        final AtomicInteger calls = new AtomicInteger();
+        DomCapture domCapture = spy(new DomCapture(eyes));
+        doAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                if (calls.incrementAndGet() == 1) {
+                    throw new EyesException("Failed running dom capture script");
+                }
+                return "content";
+            }
+        }).when(domCapture).getFrameDom(anyString(), ArgumentMatchers.<String>anyList());
+
+        Map<String, String> result = domCapture.recurseFrames(Arrays.asList("frame1"), Arrays.asList("url"));
+        Assert.assertEquals(result.size(), 1);
+        Assert.assertEquals(result.get("frame1"), "content");
+        verify(driver, times(1)).findElement(By.xpath("frame1"));
+        verify(domCapture, times(2)).getFrameDom("sameOriginUrl", Arrays.asList("url", "sameOriginUrl"));
+    }
+
     @Test
     public void TestCssEscaping() {
         EyesSeleniumDriver driver = mock(EyesSeleniumDriver.class);